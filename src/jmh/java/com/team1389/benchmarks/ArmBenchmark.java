@@ -0,0 +1,49 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.systems.Arm;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArmBenchmark
+{
+    private static final Arm.State[] STATES = Arm.State.values();
+
+    private ArmIO io;
+    private Arm arm;
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        io = new ArmIO();
+        arm = new Arm(io.hatchOuttake.getDigitalOut(), io.cargoLauncher.getDigitalOut(),
+                io.cargoIntake.getRangeOut(), io.arm.getRangeOut(), io.cargoIntakeBeamBreak.getDigitalIn(),
+                io.armAngle.getPositionIn(-15, 115));
+        arm.init();
+    }
+
+    @Benchmark
+    public void update()
+    {
+        arm.update();
+    }
+
+    @Benchmark
+    public void enterStateAndUpdate()
+    {
+        arm.enterState(STATES[next]);
+        next = (next + 1) % STATES.length;
+        arm.update();
+    }
+}
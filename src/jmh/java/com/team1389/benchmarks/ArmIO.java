@@ -0,0 +1,25 @@
+package com.team1389.benchmarks;
+
+import com.team1389.simulation.SimDigitalInput;
+import com.team1389.simulation.SimDigitalOutput;
+import com.team1389.simulation.SimRangeInput;
+import com.team1389.simulation.SimRangeOutput;
+
+/**
+ * in-memory arm hardware shared by the arm benchmarks
+ */
+public class ArmIO
+{
+    public final SimDigitalOutput hatchOuttake = new SimDigitalOutput();
+    public final SimDigitalOutput cargoLauncher = new SimDigitalOutput();
+    public final SimRangeOutput cargoIntake = new SimRangeOutput();
+    public final SimRangeOutput arm = new SimRangeOutput();
+    public final SimDigitalInput cargoIntakeBeamBreak = new SimDigitalInput();
+    public final SimRangeInput armAngle = new SimRangeInput();
+    public final SimRangeInput armAxis = new SimRangeInput();
+
+    public ArmIO()
+    {
+        armAngle.set(115);
+    }
+}
@@ -0,0 +1,45 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.simulation.SimDigitalInput;
+import com.team1389.simulation.SimDigitalOutput;
+import com.team1389.simulation.SimRangeOutput;
+import com.team1389.systems.Climber;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClimberBenchmark
+{
+    private SimDigitalOutput liftPiston = new SimDigitalOutput();
+    private SimRangeOutput wheelVoltage = new SimRangeOutput();
+    private SimDigitalInput bumpSwitch = new SimDigitalInput();
+    private SimDigitalInput toggleLift = new SimDigitalInput();
+    private Climber climber;
+    private int loop;
+
+    @Setup
+    public void setup()
+    {
+        climber = new Climber(liftPiston.getDigitalOut(), wheelVoltage.getPercentOut(), bumpSwitch.getDigitalIn(),
+                toggleLift.getDigitalIn());
+        climber.init();
+    }
+
+    @Benchmark
+    public void update()
+    {
+        // toggleLift stays released; each climb schedules a 5s wait
+        bumpSwitch.set((++loop & 1) != 0);
+        climber.update();
+    }
+}
@@ -0,0 +1,50 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.simulation.SimDigitalInput;
+import com.team1389.systems.ManualArm;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ManualArmBenchmark
+{
+    private ArmIO io;
+    private SimDigitalInput outtakeHatchBtn = new SimDigitalInput();
+    private SimDigitalInput intakeCargoBtn = new SimDigitalInput();
+    private SimDigitalInput outtakeCargoBtn = new SimDigitalInput();
+    private ManualArm manualArm;
+    private int loop;
+
+    @Setup
+    public void setup()
+    {
+        io = new ArmIO();
+        manualArm = new ManualArm(io.hatchOuttake.getDigitalOut(), io.cargoLauncher.getDigitalOut(),
+                io.cargoIntake.getRangeOut(), io.arm.getRangeOut(), io.cargoIntakeBeamBreak.getDigitalIn(),
+                io.armAxis.getPercentIn(), outtakeHatchBtn.getDigitalIn(), intakeCargoBtn.getDigitalIn(),
+                outtakeCargoBtn.getDigitalIn(), true);
+        manualArm.init();
+    }
+
+    @Benchmark
+    public void update()
+    {
+        // cycle through the button and beam break combinations
+        loop++;
+        intakeCargoBtn.set((loop & 1) != 0);
+        outtakeCargoBtn.set((loop & 2) != 0);
+        io.cargoIntakeBeamBreak.set((loop & 4) != 0);
+        outtakeHatchBtn.set((loop & 8) != 0);
+        manualArm.update();
+    }
+}
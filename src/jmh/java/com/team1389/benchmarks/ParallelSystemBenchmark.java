@@ -0,0 +1,104 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.scheduling.OutputOwner;
+import com.team1389.scheduling.ParallelSystemManager;
+import com.team1389.simulation.SimDigitalOutput;
+import com.team1389.system.Subsystem;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.Watchable;
+
+/**
+ * loop time of a set of independent subsystems, updated serially and across
+ * both lanes. Each subsystem does a fixed amount of busy work, standing in for
+ * the heavier updates to come
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelSystemBenchmark
+{
+    @Param({ "2", "4", "8" })
+    private int subsystems;
+
+    @Param({ "false", "true" })
+    private boolean parallel;
+
+    @Param({ "50000" })
+    private long workNanos;
+
+    private ParallelSystemManager manager;
+
+    @Setup
+    public void setup()
+    {
+        Subsystem[] busy = new Subsystem[subsystems];
+        for (int i = 0; i < busy.length; i++)
+        {
+            busy[i] = new BusySubsystem(workNanos);
+        }
+        manager = new ParallelSystemManager(busy);
+        manager.setMinParallelNanos(parallel ? 0 : Long.MAX_VALUE);
+        manager.init();
+    }
+
+    @Benchmark
+    public void update()
+    {
+        manager.update();
+    }
+
+    private static class BusySubsystem extends Subsystem implements OutputOwner
+    {
+        private final SimDigitalOutput output = new SimDigitalOutput();
+        private final long workNanos;
+
+        private BusySubsystem(long workNanos)
+        {
+            this.workNanos = workNanos;
+        }
+
+        @Override
+        public void init()
+        {
+        }
+
+        @Override
+        public void update()
+        {
+            long end = System.nanoTime() + workNanos;
+            while (System.nanoTime() < end)
+            {
+            }
+            output.getDigitalOut().set(!output.get());
+        }
+
+        @Override
+        public String getName()
+        {
+            return "Busy";
+        }
+
+        @Override
+        public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+        {
+            return stem;
+        }
+
+        @Override
+        public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+        {
+            return stem.put(output);
+        }
+    }
+}
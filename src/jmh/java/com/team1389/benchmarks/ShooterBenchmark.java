@@ -0,0 +1,50 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.commands.ManualClock;
+import com.team1389.simulation.SimDigitalInput;
+import com.team1389.simulation.SimDigitalOutput;
+import com.team1389.systems.Shooter;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShooterBenchmark
+{
+    private SimDigitalOutput rightShooter = new SimDigitalOutput();
+    private SimDigitalOutput leftShooter = new SimDigitalOutput();
+    private SimDigitalInput hasCargo = new SimDigitalInput();
+    private ManualClock clock = new ManualClock();
+    private Shooter shooter;
+
+    @Setup
+    public void setup()
+    {
+        hasCargo.set(true);
+        shooter = new Shooter(rightShooter.getDigitalOut(), leftShooter.getDigitalOut(), hasCargo.getDigitalIn(),
+                clock);
+        shooter.init();
+    }
+
+    /**
+     * shoots, then advances the clock past the wait so the shot finishes and
+     * scheduled shots don't pile up across invocations
+     */
+    @Benchmark
+    public void shootRight()
+    {
+        shooter.shootRight();
+        shooter.update();
+        clock.advance(1);
+        shooter.update();
+    }
+}
@@ -0,0 +1,91 @@
+package com.team1389.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.commands.ManualClock;
+import com.team1389.telemetry.StateHistory;
+import com.team1389.telemetry.TelemetryChannel;
+
+/**
+ * recording a loop's state and looking up an interpolated past value, for
+ * histories of a second and of twenty seconds of 50 Hz loops
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateHistoryBenchmark
+{
+    private static final int LOOKUPS = 1024;
+
+    @Param({ "64", "1024" })
+    public int capacity;
+
+    @Param({ "8", "32" })
+    public int channels;
+
+    private final ManualClock clock = new ManualClock();
+    private StateHistory history;
+    private double[] lookupTimes = new double[LOOKUPS];
+    private double[] values;
+    private double state;
+    private int lookup;
+
+    @Setup
+    public void setup()
+    {
+        List<TelemetryChannel> channelList = new ArrayList<>();
+        for (int i = 0; i < channels; i++)
+        {
+            int offset = i;
+            channelList.add(i % 4 == 3 ? TelemetryChannel.bool("bool " + i, () -> state > offset)
+                    : TelemetryChannel.number("number " + i, () -> state + offset));
+        }
+        history = new StateHistory(channelList, capacity, clock);
+        for (int i = 0; i < capacity; i++)
+        {
+            clock.advance(0.02);
+            state = i;
+            history.record();
+        }
+        Random random = new Random(1389);
+        double span = history.getNewestSeconds() - history.getOldestSeconds();
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            lookupTimes[i] = history.getOldestSeconds() + random.nextDouble() * span;
+        }
+        values = new double[channels];
+    }
+
+    @Benchmark
+    public void record()
+    {
+        clock.advance(0.02);
+        state++;
+        history.record();
+    }
+
+    @Benchmark
+    public double getOne()
+    {
+        return history.get(lookupTimes[lookup++ & (LOOKUPS - 1)], 0);
+    }
+
+    @Benchmark
+    public double[] getAll()
+    {
+        history.get(lookupTimes[lookup++ & (LOOKUPS - 1)], values);
+        return values;
+    }
+}
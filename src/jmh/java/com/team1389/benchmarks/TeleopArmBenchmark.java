@@ -0,0 +1,62 @@
+package com.team1389.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.team1389.simulation.SimDigitalInput;
+import com.team1389.systems.TeleopArm;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TeleopArmBenchmark
+{
+    private ArmIO io;
+    private SimDigitalInput[] buttons = new SimDigitalInput[7];
+    private SimDigitalInput toggleManualModeBtn = new SimDigitalInput();
+    private TeleopArm teleopArm;
+    private int loop;
+
+    @Setup
+    public void setup()
+    {
+        io = new ArmIO();
+        for (int i = 0; i < buttons.length; i++)
+        {
+            buttons[i] = new SimDigitalInput();
+        }
+        teleopArm = new TeleopArm(io.hatchOuttake.getDigitalOut(), io.cargoLauncher.getDigitalOut(),
+                io.cargoIntake.getRangeOut(), io.arm.getRangeOut(), io.cargoIntakeBeamBreak.getDigitalIn(),
+                io.armAngle.getPositionIn(-15, 115), io.armAxis.getPercentIn(), buttons[0].getDigitalIn(),
+                buttons[1].getDigitalIn(), buttons[2].getDigitalIn(), buttons[3].getDigitalIn(),
+                buttons[4].getDigitalIn(), buttons[5].getDigitalIn(), buttons[6].getDigitalIn(),
+                toggleManualModeBtn.getDigitalIn(), true);
+        teleopArm.init();
+    }
+
+    @Benchmark
+    public void updateIdle()
+    {
+        teleopArm.update();
+    }
+
+    @Benchmark
+    public void updateWithPresses()
+    {
+        // hold each button for 8 loops, then move on to the next one
+        loop++;
+        int pressed = (loop >> 3) % buttons.length;
+        for (int i = 0; i < buttons.length; i++)
+        {
+            buttons[i].set(i == pressed);
+        }
+        teleopArm.update();
+    }
+}
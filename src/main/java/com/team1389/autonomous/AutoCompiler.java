@@ -0,0 +1,177 @@
+package com.team1389.autonomous;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.team1389.systems.Arm;
+
+/**
+ * compiles autonomous routines from text into the {@link AutoFormat binary
+ * format}. Run at build time by ./gradlew compileAutos. Each .auto file holds
+ * one step per line; blank lines and text after # are ignored:
+ *
+ * <pre>
+ * arm INTAKE_CARGO_FROM_GROUND timeout 4
+ * arm STORE_CARGO
+ * wait 0.5
+ * shoot right
+ * </pre>
+ *
+ * Exits with a non-zero status, naming the file and line, on the first
+ * mistake
+ */
+public class AutoCompiler
+{
+    public static final String SOURCE_EXTENSION = ".auto";
+
+    /**
+     * @param args
+     *                 source directory, then output directory
+     */
+    public static void main(String... args) throws IOException
+    {
+        Path source = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Files.createDirectories(output);
+        List<Path> routines;
+        try (Stream<Path> files = Files.list(source))
+        {
+            routines = files.filter(f -> f.toString().endsWith(SOURCE_EXTENSION)).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path routine : routines)
+        {
+            String name = routine.getFileName().toString().replace(SOURCE_EXTENSION, "");
+            try
+            {
+                byte[] compiled = compile(Files.readAllLines(routine));
+                Files.write(output.resolve(name + AutoFormat.EXTENSION), compiled);
+                System.out.printf("%s: %d bytes%n", name, compiled.length);
+            }
+            catch (IllegalArgumentException e)
+            {
+                System.out.println(routine + ":" + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *                                      with the line number and problem if
+     *                                      any line can't be compiled
+     */
+    public static byte[] compile(List<String> lines)
+    {
+        ByteBuffer steps = ByteBuffer.allocate(lines.size() * AutoFormat.STEP_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        int count = 0;
+        for (int i = 0; i < lines.size(); i++)
+        {
+            String line = lines.get(i).replaceAll("#.*", "").trim();
+            if (line.isEmpty())
+            {
+                continue;
+            }
+            try
+            {
+                compileStep(line.split("\\s+"), steps);
+                count++;
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException((i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        if (count > Short.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("too many steps");
+        }
+
+        ByteBuffer routine = ByteBuffer.allocate(AutoFormat.HEADER_BYTES + steps.position())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        routine.putInt(AutoFormat.MAGIC);
+        routine.putShort(AutoFormat.VERSION);
+        routine.putShort((short) count);
+        routine.putInt(AutoFormat.armStateHash());
+        steps.flip();
+        routine.put(steps);
+        return routine.array();
+    }
+
+    private static void compileStep(String[] words, ByteBuffer steps)
+    {
+        switch (words[0])
+        {
+        case "arm":
+            expect(words, words.length == 2 || (words.length == 4 && words[2].equals("timeout")),
+                    "arm <state> [timeout <seconds>]");
+            putStep(steps, AutoFormat.ARM, parseState(words[1]).ordinal(),
+                    words.length == 4 ? parseSeconds(words[3]) : 0);
+            break;
+        case "shoot":
+            expect(words, words.length == 2 && (words[1].equals("left") || words[1].equals("right")),
+                    "shoot left|right");
+            putStep(steps, AutoFormat.SHOOT, words[1].equals("left") ? AutoFormat.LEFT : AutoFormat.RIGHT, 0);
+            break;
+        case "wait":
+            expect(words, words.length == 2, "wait <seconds>");
+            putStep(steps, AutoFormat.WAIT, 0, parseSeconds(words[1]));
+            break;
+        default:
+            throw new IllegalArgumentException("unknown step " + words[0] + "; expected arm, shoot or wait");
+        }
+    }
+
+    private static void putStep(ByteBuffer steps, byte op, int argument, float value)
+    {
+        steps.put(op);
+        steps.put((byte) argument);
+        steps.putShort((short) 0);
+        steps.putFloat(value);
+    }
+
+    private static void expect(String[] words, boolean valid, String usage)
+    {
+        if (!valid)
+        {
+            throw new IllegalArgumentException("expected " + usage + ", got " + String.join(" ", words));
+        }
+    }
+
+    private static Arm.State parseState(String name)
+    {
+        try
+        {
+            return Arm.State.valueOf(name);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("no arm state " + name);
+        }
+    }
+
+    private static float parseSeconds(String value)
+    {
+        try
+        {
+            float seconds = Float.parseFloat(value);
+            if (seconds < 0 || Float.isNaN(seconds) || Float.isInfinite(seconds))
+            {
+                throw new IllegalArgumentException("seconds must be positive, got " + value);
+            }
+            return seconds;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("not a number of seconds: " + value);
+        }
+    }
+}
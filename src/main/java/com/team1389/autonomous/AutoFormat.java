@@ -0,0 +1,51 @@
+package com.team1389.autonomous;
+
+import com.team1389.systems.Arm;
+
+/**
+ * layout of compiled autonomous routines. Little-endian:
+ *
+ * <pre>
+ * header: int magic, short version, short step count, int arm state hash
+ * steps:  byte op, byte argument, short unused, float value
+ * </pre>
+ *
+ * Arm states are stored by ordinal, so the header carries a hash of the state
+ * names and routines compiled against a different {@link Arm.State} are
+ * rejected when loaded
+ */
+public final class AutoFormat
+{
+    public static final int MAGIC = 0x4f545541;
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+    public static final int STEP_BYTES = 8;
+    public static final String EXTENSION = ".bin";
+
+    /**
+     * enters the {@link Arm.State} with the argument's ordinal, then waits for
+     * its transition to finish or for value seconds if value is positive
+     */
+    public static final byte ARM = 1;
+    /** shoots the left shooter if the argument is 0, otherwise the right */
+    public static final byte SHOOT = 2;
+    /** waits value seconds */
+    public static final byte WAIT = 3;
+
+    public static final byte LEFT = 0;
+    public static final byte RIGHT = 1;
+
+    private AutoFormat()
+    {
+    }
+
+    public static int armStateHash()
+    {
+        int hash = 1;
+        for (Arm.State state : Arm.State.values())
+        {
+            hash = 31 * hash + state.name().hashCode();
+        }
+        return hash;
+    }
+}
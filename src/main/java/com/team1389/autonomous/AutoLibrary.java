@@ -0,0 +1,68 @@
+package com.team1389.autonomous;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * every compiled routine in a directory, mapped once at startup so choosing
+ * and starting one in autonomousInit costs nothing
+ */
+public class AutoLibrary
+{
+    private final Map<String, AutoRoutine> routines = new TreeMap<>();
+
+    /**
+     * maps every routine in the directory. Files that fail to load are
+     * reported and skipped, so one stale routine can't stop the robot from
+     * starting
+     */
+    public static AutoLibrary load(Path directory)
+    {
+        AutoLibrary library = new AutoLibrary();
+        if (!Files.isDirectory(directory))
+        {
+            System.out.println("no autonomous routines in " + directory);
+            return library;
+        }
+        try (Stream<Path> files = Files.list(directory))
+        {
+            files.filter(f -> f.toString().endsWith(AutoFormat.EXTENSION)).sorted().forEach(library::add);
+        }
+        catch (IOException e)
+        {
+            System.out.println("couldn't list autonomous routines: " + e);
+        }
+        System.out.println("autonomous routines: " + library.routines.keySet());
+        return library;
+    }
+
+    private void add(Path file)
+    {
+        try
+        {
+            AutoRoutine routine = AutoRoutine.map(file);
+            routines.put(routine.getName(), routine);
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            System.out.println("skipping autonomous routine " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the routine, or null if there is none with that name
+     */
+    public AutoRoutine get(String name)
+    {
+        return routines.get(name);
+    }
+
+    public String[] getNames()
+    {
+        return routines.keySet().toArray(new String[0]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.team1389.autonomous;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * a compiled autonomous routine, read in place from a memory-mapped file.
+ * Reading steps never allocates
+ */
+public class AutoRoutine
+{
+    private final String name;
+    private final ByteBuffer buffer;
+    private final int steps;
+
+    /**
+     * @throws IllegalArgumentException
+     *                                      if the buffer isn't a routine this
+     *                                      version of the code can run
+     */
+    public AutoRoutine(String name, ByteBuffer buffer)
+    {
+        this.name = name;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < AutoFormat.HEADER_BYTES || buffer.getInt(0) != AutoFormat.MAGIC)
+        {
+            throw new IllegalArgumentException(name + " is not a compiled routine");
+        }
+        if (buffer.getShort(4) != AutoFormat.VERSION)
+        {
+            throw new IllegalArgumentException(name + " was compiled for format version " + buffer.getShort(4));
+        }
+        if (buffer.getInt(8) != AutoFormat.armStateHash())
+        {
+            throw new IllegalArgumentException(name + " was compiled against different arm states");
+        }
+        steps = buffer.getShort(6);
+        if (buffer.capacity() < AutoFormat.HEADER_BYTES + steps * AutoFormat.STEP_BYTES)
+        {
+            throw new IllegalArgumentException(name + " is truncated");
+        }
+    }
+
+    public static AutoRoutine map(Path file) throws IOException
+    {
+        String name = file.getFileName().toString().replace(AutoFormat.EXTENSION, "");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // fault the pages in now rather than on the first autonomous loop
+            ((java.nio.MappedByteBuffer) mapped).load();
+            return new AutoRoutine(name, mapped);
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getStepCount()
+    {
+        return steps;
+    }
+
+    public byte getOp(int step)
+    {
+        return buffer.get(offset(step));
+    }
+
+    public int getArgument(int step)
+    {
+        return buffer.get(offset(step) + 1) & 0xff;
+    }
+
+    public float getValue(int step)
+    {
+        return buffer.getFloat(offset(step) + 4);
+    }
+
+    private static int offset(int step)
+    {
+        return AutoFormat.HEADER_BYTES + step * AutoFormat.STEP_BYTES;
+    }
+}
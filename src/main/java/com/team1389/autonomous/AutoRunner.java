@@ -0,0 +1,164 @@
+package com.team1389.autonomous;
+
+import com.team1389.commands.Clock;
+import com.team1389.scheduling.OutputOwner;
+import com.team1389.system.Subsystem;
+import com.team1389.systems.Arm;
+import com.team1389.systems.Shooter;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.Watchable;
+import com.team1389.watch.info.NumberInfo;
+
+/**
+ * runs a compiled {@link AutoRoutine} on the arm and shooter. Steps are read
+ * straight out of the routine's buffer, so running one doesn't allocate
+ */
+public class AutoRunner extends Subsystem implements TelemetrySource, OutputOwner
+{
+    private static final Arm.State[] ARM_STATES = Arm.State.values();
+
+    private final Arm arm;
+    private final Shooter shooter;
+    private final Clock clock;
+
+    private AutoRoutine routine;
+    private int step;
+    private boolean stepStarted;
+    private double stepStart;
+
+    public AutoRunner(Arm arm, Shooter shooter, Clock clock)
+    {
+        this.arm = arm;
+        this.shooter = shooter;
+        this.clock = clock;
+    }
+
+    public void init()
+    {
+        arm.init();
+        shooter.init();
+    }
+
+    /**
+     * starts the routine from its first step, dropping any routine already
+     * running
+     */
+    public void start(AutoRoutine routine)
+    {
+        this.routine = routine;
+        step = 0;
+        stepStarted = false;
+    }
+
+    public void update()
+    {
+        runSteps();
+        arm.update();
+        shooter.update();
+    }
+
+    /**
+     * advances the routine without updating the arm or shooter, for callers
+     * that update those themselves
+     */
+    public void runSteps()
+    {
+        // instant steps run back to back in the same loop
+        while (!isFinished())
+        {
+            if (!stepStarted)
+            {
+                startStep();
+            }
+            if (!isStepDone())
+            {
+                return;
+            }
+            step++;
+            stepStarted = false;
+        }
+    }
+
+    private void startStep()
+    {
+        stepStarted = true;
+        stepStart = clock.getSeconds();
+        switch (routine.getOp(step))
+        {
+        case AutoFormat.ARM:
+            arm.enterState(ARM_STATES[routine.getArgument(step)]);
+            break;
+        case AutoFormat.SHOOT:
+            if (routine.getArgument(step) == AutoFormat.LEFT)
+            {
+                shooter.shootLeft();
+            }
+            else
+            {
+                shooter.shootRight();
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private boolean isStepDone()
+    {
+        float seconds = routine.getValue(step);
+        boolean timedOut = clock.getSeconds() - stepStart >= seconds;
+        switch (routine.getOp(step))
+        {
+        case AutoFormat.ARM:
+            return !arm.isTransitionRunning() || (seconds > 0 && timedOut);
+        case AutoFormat.WAIT:
+            return timedOut;
+        default:
+            return true;
+        }
+    }
+
+    public boolean isFinished()
+    {
+        return routine == null || step >= routine.getStepCount();
+    }
+
+    public String getRoutineName()
+    {
+        return routine == null ? "none" : routine.getName();
+    }
+
+    public int getStep()
+    {
+        return step;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Auto Runner";
+    }
+
+    @Override
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        return stem.put(arm, shooter, new NumberInfo("auto step", () -> step));
+    }
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        stem.put(TelemetryChannel.number("auto/step", () -> step));
+        arm.getTelemetryChannels(stem);
+        return shooter.getTelemetryChannels(stem);
+    }
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        arm.getOwnedOutputs(stem);
+        return shooter.getOwnedOutputs(stem);
+    }
+}
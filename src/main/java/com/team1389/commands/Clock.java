@@ -0,0 +1,20 @@
+package com.team1389.commands;
+
+/**
+ * source of time for timed commands, so sequences can run against a virtual
+ * clock in tests and simulation
+ */
+@FunctionalInterface
+public interface Clock
+{
+    /**
+     * the monotonic wall clock
+     */
+    public static final Clock SYSTEM = () -> System.nanoTime() / 1e9;
+
+    /**
+     * @return the current time in seconds. Only differences between readings
+     *         are meaningful
+     */
+    public double getSeconds();
+}
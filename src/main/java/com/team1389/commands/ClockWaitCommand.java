@@ -0,0 +1,32 @@
+package com.team1389.commands;
+
+import com.team1389.command_framework.command_base.Command;
+
+/**
+ * framework command that waits for a number of seconds on the given clock.
+ * Replaces WaitTimeCommand wherever a sequence has to run in virtual time
+ */
+public class ClockWaitCommand extends Command
+{
+    private final double seconds;
+    private final Clock clock;
+    private double start = Double.NaN;
+
+    public ClockWaitCommand(double seconds, Clock clock)
+    {
+        this.seconds = seconds;
+        this.clock = clock;
+        setName("wait " + seconds + "s");
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        double now = clock.getSeconds();
+        if (Double.isNaN(start))
+        {
+            start = now;
+        }
+        return now - start >= seconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.team1389.commands;
+
+/**
+ * a clock that only moves when it is advanced, for deterministic tests and
+ * faster-than-real-time simulation
+ */
+public class ManualClock implements Clock
+{
+    private double seconds;
+
+    public void advance(double seconds)
+    {
+        this.seconds += seconds;
+    }
+
+    public void set(double seconds)
+    {
+        this.seconds = seconds;
+    }
+
+    @Override
+    public double getSeconds()
+    {
+        return seconds;
+    }
+}
@@ -0,0 +1,149 @@
+package com.team1389.commands;
+
+/**
+ * runs several {@link ReusableCommand}s at once, as long as they drive
+ * different outputs. Scheduling a command releases what it needs from the
+ * commands already running: the parts of them that drive the same outputs
+ * stop, and anything else they were already doing carries on. Runs in a
+ * fixed array, so scheduling and updating don't allocate
+ */
+public class ResourceScheduler
+{
+    private final ReusableCommand[] running;
+    private int count;
+
+    private long scheduled;
+    private long completed;
+    private long preempted;
+    private long interrupted;
+
+    /**
+     * @param capacity
+     *                     most commands that can run at once
+     */
+    public ResourceScheduler(int capacity)
+    {
+        running = new ReusableCommand[capacity];
+    }
+
+    /**
+     * starts a command from the beginning, first stopping whatever it
+     * conflicts with. A command scheduled again while still running is
+     * restarted
+     * 
+     * @throws IllegalStateException
+     *                                   if the scheduler is already running
+     *                                   as many commands as it can hold
+     */
+    public void schedule(ReusableCommand command)
+    {
+        int needs = command.getRequirements();
+        for (int i = 0; i < count; i++)
+        {
+            ReusableCommand other = running[i];
+            if (other == command)
+            {
+                other.cancel();
+                interrupted++;
+            }
+            else if (other.release(needs))
+            {
+                preempted++;
+            }
+        }
+        removeFinished();
+        if (count == running.length)
+        {
+            throw new IllegalStateException("can't run more than " + running.length + " commands at once");
+        }
+        command.rearm();
+        running[count++] = command;
+        scheduled++;
+    }
+
+    /**
+     * steps every running command once
+     */
+    public void update()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (running[i].step())
+            {
+                completed++;
+            }
+        }
+        removeFinished();
+    }
+
+    /**
+     * stops every running command
+     */
+    public void cancelAll()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            running[i].cancel();
+            interrupted++;
+            running[i] = null;
+        }
+        count = 0;
+    }
+
+    private void removeFinished()
+    {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (!running[i].isFinished())
+            {
+                running[kept++] = running[i];
+            }
+        }
+        for (int i = kept; i < count; i++)
+        {
+            running[i] = null;
+        }
+        count = kept;
+    }
+
+    /**
+     * @return commands still running
+     */
+    public int getRunningCount()
+    {
+        return count;
+    }
+
+    public long getScheduled()
+    {
+        return scheduled;
+    }
+
+    /**
+     * @return commands that ran to the end; includes commands that kept
+     *         running after being partly preempted
+     */
+    public long getCompleted()
+    {
+        return completed;
+    }
+
+    /**
+     * @return times a running command had some of its work stopped or
+     *         dropped because a new command needed its outputs
+     */
+    public long getPreempted()
+    {
+        return preempted;
+    }
+
+    /**
+     * @return commands stopped outright by {@link #cancelAll()} or by being
+     *         scheduled again
+     */
+    public long getInterrupted()
+    {
+        return interrupted;
+    }
+}
@@ -0,0 +1,160 @@
+package com.team1389.commands;
+
+import com.team1389.util.list.AddList;
+
+/**
+ * a command that can be re-armed and run again without being rebuilt. Mirrors
+ * the initialize/execute/done lifecycle of the command framework, but all
+ * state lives in the instance so a graph of these can be built once at init
+ * and re-used on every transition without allocating
+ */
+public abstract class ReusableCommand
+{
+    private String name;
+    private boolean started;
+    private boolean finished;
+    // bit mask of the outputs this command drives
+    private int requirements;
+
+    public ReusableCommand(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * declares the outputs this command drives, as a bit mask with one bit
+     * per output, so a {@link ResourceScheduler} only stops it for commands
+     * that need the same ones
+     * 
+     * @return this command, for chaining
+     */
+    public ReusableCommand requiring(int requirements)
+    {
+        this.requirements |= requirements;
+        return this;
+    }
+
+    /**
+     * @return bit mask of the outputs this command, or any command in it,
+     *         drives
+     */
+    public int getRequirements()
+    {
+        return requirements;
+    }
+
+    /**
+     * frees the given outputs for another command. A command made of other
+     * commands stops only the parts that drive them, lets other parts that
+     * are already running finish, and drops parts that haven't started
+     * 
+     * @param resources
+     *                      bit mask of the outputs wanted
+     * @return true if anything was stopped
+     */
+    public boolean release(int resources)
+    {
+        if (finished || (requirements & resources) == 0)
+        {
+            return false;
+        }
+        boolean wasRunning = started;
+        cancel();
+        return wasRunning;
+    }
+
+    /**
+     * resets this command so the next call to {@link #step()} starts it from
+     * the beginning
+     * 
+     * @return this command, for chaining
+     */
+    public ReusableCommand rearm()
+    {
+        started = false;
+        finished = false;
+        return this;
+    }
+
+    /**
+     * runs one iteration of the command
+     * 
+     * @return true once the command has finished
+     */
+    public final boolean step()
+    {
+        if (finished)
+        {
+            return true;
+        }
+        if (!started)
+        {
+            started = true;
+            initialize();
+        }
+        if (execute())
+        {
+            finished = true;
+            done();
+        }
+        return finished;
+    }
+
+    /**
+     * stops the command early, running its cleanup if it had started
+     */
+    public void cancel()
+    {
+        if (started && !finished)
+        {
+            done();
+        }
+        finished = true;
+    }
+
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    public boolean isRunning()
+    {
+        return started && !finished;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the name of the step currently running, for commands made of
+     *         other commands; this command's name otherwise
+     */
+    public String getActiveName()
+    {
+        return name;
+    }
+
+    /**
+     * adds the name of this command and every command in it, each of which
+     * {@link #getActiveName()} may return
+     */
+    public AddList<String> getNames(AddList<String> stem)
+    {
+        return stem.put(name);
+    }
+
+    protected void initialize()
+    {
+    }
+
+    /**
+     * @return true when the command is complete
+     */
+    protected abstract boolean execute();
+
+    protected void done()
+    {
+    }
+}
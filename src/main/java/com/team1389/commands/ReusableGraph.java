@@ -0,0 +1,209 @@
+package com.team1389.commands;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import com.team1389.util.list.AddList;
+
+/**
+ * runs commands as soon as the commands they depend on have finished, so
+ * steps that don't depend on each other run at the same time. A command can
+ * also wait on a guard, a condition checked only before it starts, and can
+ * interrupt other commands when it starts, e.g. a move that takes over from
+ * the one before it. An interrupted command counts as finished. The graph
+ * finishes when every command has.
+ * <p>
+ * Commands may only depend on commands added before them, so the graph can't
+ * have cycles, and a chain of instant commands finishes within one step, as
+ * in {@link ReusableSequence}. Everything is laid out when the graph is built;
+ * stepping it doesn't allocate
+ */
+public class ReusableGraph extends ReusableCommand
+{
+    private static final int[] NONE = new int[0];
+
+    private ReusableCommand[] commands = new ReusableCommand[0];
+    private BooleanSupplier[] guards = new BooleanSupplier[0];
+    private int[][] dependencies = new int[0][];
+    private int[][] interrupts = new int[0][];
+
+    public ReusableGraph(String name)
+    {
+        super(name);
+    }
+
+    /**
+     * @param after
+     *                  commands that must finish before this one starts
+     * @return the command's index, to depend on it
+     */
+    public int add(ReusableCommand command, int... after)
+    {
+        return add(command, null, after);
+    }
+
+    /**
+     * @param guard
+     *                  must also be true before the command starts; null for
+     *                  none
+     * @param after
+     *                  commands that must finish before this one starts
+     * @return the command's index, to depend on it
+     */
+    public int add(ReusableCommand command, BooleanSupplier guard, int... after)
+    {
+        int index = commands.length;
+        for (int dependency : after)
+        {
+            if (dependency < 0 || dependency >= index)
+            {
+                throw new IllegalArgumentException(
+                        command.getName() + " can only depend on commands added before it, not " + dependency);
+            }
+        }
+        commands = Arrays.copyOf(commands, index + 1);
+        guards = Arrays.copyOf(guards, index + 1);
+        dependencies = Arrays.copyOf(dependencies, index + 1);
+        interrupts = Arrays.copyOf(interrupts, index + 1);
+        commands[index] = command;
+        guards[index] = guard;
+        dependencies[index] = after;
+        interrupts[index] = NONE;
+        requiring(command.getRequirements());
+        return index;
+    }
+
+    /**
+     * cancels the interrupted commands when the given one starts, if they
+     * are still running or haven't started
+     */
+    public ReusableGraph interrupts(int command, int... interrupted)
+    {
+        interrupts[command] = interrupted;
+        return this;
+    }
+
+    @Override
+    public ReusableCommand rearm()
+    {
+        for (ReusableCommand command : commands)
+        {
+            command.rearm();
+        }
+        return super.rearm();
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        boolean finished = true;
+        for (int i = 0; i < commands.length; i++)
+        {
+            ReusableCommand command = commands[i];
+            if (command.isFinished())
+            {
+                continue;
+            }
+            if (!command.isRunning())
+            {
+                if (!isReady(i))
+                {
+                    finished = false;
+                    continue;
+                }
+                for (int interrupted : interrupts[i])
+                {
+                    commands[interrupted].cancel();
+                }
+            }
+            if (!command.step())
+            {
+                finished = false;
+            }
+        }
+        return finished;
+    }
+
+    private boolean isReady(int command)
+    {
+        for (int dependency : dependencies[command])
+        {
+            if (!commands[dependency].isFinished())
+            {
+                return false;
+            }
+        }
+        return guards[command] == null || guards[command].getAsBoolean();
+    }
+
+    /**
+     * stops the commands that drive the given outputs and drops every command
+     * that hasn't started; commands already running on other outputs finish
+     */
+    @Override
+    public boolean release(int resources)
+    {
+        if (isFinished() || (getRequirements() & resources) == 0)
+        {
+            return false;
+        }
+        if (!isRunning())
+        {
+            return super.release(getRequirements());
+        }
+        boolean released = false;
+        for (ReusableCommand command : commands)
+        {
+            if (command.isRunning())
+            {
+                released |= command.release(resources);
+            }
+            else if (!command.isFinished())
+            {
+                command.cancel();
+                released = true;
+            }
+        }
+        return released;
+    }
+
+    @Override
+    protected void done()
+    {
+        for (ReusableCommand command : commands)
+        {
+            command.cancel();
+        }
+    }
+
+    /**
+     * @return the name of the first command running, or this graph's name if
+     *         none are
+     */
+    @Override
+    public String getActiveName()
+    {
+        if (isRunning())
+        {
+            for (ReusableCommand command : commands)
+            {
+                if (command.isRunning())
+                {
+                    return command.getActiveName();
+                }
+            }
+        }
+        return getName();
+    }
+
+    @Override
+    public AddList<String> getNames(AddList<String> stem)
+    {
+        super.getNames(stem);
+        for (ReusableCommand command : commands)
+        {
+            command.getNames(stem);
+        }
+        return stem;
+    }
+}
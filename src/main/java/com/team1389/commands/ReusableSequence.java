@@ -0,0 +1,99 @@
+package com.team1389.commands;
+
+import com.team1389.util.list.AddList;
+
+/**
+ * runs a fixed list of commands one after another. Re-arming the sequence
+ * re-arms every command in it
+ */
+public class ReusableSequence extends ReusableCommand
+{
+    private final ReusableCommand[] commands;
+    private int index;
+    // commands past this one were dropped by release
+    private int end;
+
+    public ReusableSequence(String name, ReusableCommand... commands)
+    {
+        super(name);
+        this.commands = commands;
+        for (ReusableCommand command : commands)
+        {
+            requiring(command.getRequirements());
+        }
+    }
+
+    @Override
+    public ReusableCommand rearm()
+    {
+        index = 0;
+        end = commands.length;
+        for (ReusableCommand command : commands)
+        {
+            command.rearm();
+        }
+        return super.rearm();
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        // advance through every command that finishes this loop, like the
+        // framework's sequential combinator does for instant commands
+        while (index < end && commands[index].step())
+        {
+            index++;
+        }
+        return index >= end;
+    }
+
+    @Override
+    protected void done()
+    {
+        if (index < end)
+        {
+            commands[index].cancel();
+        }
+    }
+
+    /**
+     * has the command running now release the given outputs and drops the
+     * commands after it
+     */
+    @Override
+    public boolean release(int resources)
+    {
+        if (isFinished() || (getRequirements() & resources) == 0)
+        {
+            return false;
+        }
+        if (!isRunning() || index >= end)
+        {
+            return super.release(getRequirements());
+        }
+        commands[index].release(resources);
+        end = index + 1;
+        return true;
+    }
+
+    /**
+     * @return the name of the command currently running, or this sequence's
+     *         name if it hasn't started or is done
+     */
+    @Override
+    public String getActiveName()
+    {
+        return isRunning() && index < end ? commands[index].getName() : getName();
+    }
+
+    @Override
+    public AddList<String> getNames(AddList<String> stem)
+    {
+        super.getNames(stem);
+        for (ReusableCommand command : commands)
+        {
+            command.getNames(stem);
+        }
+        return stem;
+    }
+}
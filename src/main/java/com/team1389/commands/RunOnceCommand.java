@@ -0,0 +1,22 @@
+package com.team1389.commands;
+
+/**
+ * runs an action once and finishes immediately
+ */
+public class RunOnceCommand extends ReusableCommand
+{
+    private final Runnable action;
+
+    public RunOnceCommand(String name, Runnable action)
+    {
+        super(name);
+        this.action = action;
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        action.run();
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.team1389.commands;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * runs an action every loop until a condition is met, then runs a finishing
+ * action (which also runs if the command is cancelled)
+ */
+public class RunUntilCommand extends ReusableCommand
+{
+    private final Runnable whileRunning;
+    private final BooleanSupplier condition;
+    private final Runnable onDone;
+
+    public RunUntilCommand(String name, Runnable whileRunning, BooleanSupplier condition, Runnable onDone)
+    {
+        super(name);
+        this.whileRunning = whileRunning;
+        this.condition = condition;
+        this.onDone = onDone;
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        whileRunning.run();
+        return condition.getAsBoolean();
+    }
+
+    @Override
+    protected void done()
+    {
+        onDone.run();
+    }
+}
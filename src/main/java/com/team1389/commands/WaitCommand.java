@@ -0,0 +1,35 @@
+package com.team1389.commands;
+
+/**
+ * finishes once the given number of seconds have passed since it started
+ */
+public class WaitCommand extends ReusableCommand
+{
+    private final double seconds;
+    private final Clock clock;
+    private double start;
+
+    public WaitCommand(double seconds, Clock clock)
+    {
+        super("wait " + seconds + "s");
+        this.seconds = seconds;
+        this.clock = clock;
+    }
+
+    public WaitCommand(double seconds)
+    {
+        this(seconds, Clock.SYSTEM);
+    }
+
+    @Override
+    protected void initialize()
+    {
+        start = clock.getSeconds();
+    }
+
+    @Override
+    protected boolean execute()
+    {
+        return clock.getSeconds() - start >= seconds;
+    }
+}
@@ -0,0 +1,343 @@
+package com.team1389.control;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.team1389.commands.Clock;
+import com.team1389.configuration.PIDConstants;
+import com.team1389.controllers.SynchronousPIDController;
+import com.team1389.hardware.inputs.software.RangeIn;
+import com.team1389.hardware.outputs.software.RangeOut;
+import com.team1389.hardware.value_types.Percent;
+import com.team1389.hardware.value_types.Position;
+import com.team1389.instrumentation.LatencyHistogram;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.CompositeWatchable;
+import com.team1389.watch.Watchable;
+import com.team1389.watch.info.NumberInfo;
+
+/**
+ * owns the arm's PID controller. By default the loop is stepped synchronously
+ * from the main loop; once {@link #runThreaded(double)} is called it instead
+ * runs on its own thread at a fixed rate, independent of what else the main
+ * loop is doing.
+ * <p>
+ * Moves either follow a {@link TrapezoidProfile}, with gravity and velocity
+ * feedforward added to the PID output, or jump straight to a step setpoint.
+ * New moves are handed over under the same lock that guards each step, so the
+ * controller and the profile being followed are only ever touched by one
+ * thread at a time. While threaded, the main loop must {@link #feed()} the loop
+ * at least every {@value #FEED_TIMEOUT} seconds or it disables itself and
+ * stops the motor until the next {@link #enable()}, and the thread exits after {@value #IDLE_EXIT} seconds
+ * without work, restarting on the next {@link #enable()}
+ */
+public class ArmControlLoop implements CompositeWatchable, TelemetrySource
+{
+    public static final double FEED_TIMEOUT = 0.1;
+    public static final double IDLE_EXIT = 2;
+    private static final long JITTER_BUCKET_NANOS = 10_000;
+
+    private final SynchronousPIDController<Percent, Position> controller;
+    private final RangeOut<Percent> arm;
+    private final Clock clock;
+    private final Object stepLock = new Object();
+    private final Object lifecycleLock = new Object();
+
+    // feedforward, in percent output
+    private final double gravityFeedforward;
+    private final double velocityFeedforward;
+    private double feedforward;
+
+    // the move being followed; guarded by stepLock
+    private TrapezoidProfile profile;
+    private final TrapezoidProfile scratchProfile;
+    private double profileStart;
+    private volatile double setpoint;
+
+    private volatile boolean enabled;
+    private volatile long lastFedNanos;
+    private double appliedSetpoint = Double.NaN;
+
+    private long periodNanos;
+    private boolean running;
+
+    private LatencyHistogram jitter;
+    private LatencyHistogram stepTime;
+
+    /**
+     * @param pidConstants
+     *                                pid gains, in percent output per degree
+     * @param armAngle
+     *                                arm angle in degrees, 0 being horizontal
+     * @param arm
+     *                                arm motor
+     * @param gravityFeedforward
+     *                                output that holds the arm horizontal
+     * @param velocityFeedforward
+     *                                output per degree per second of profile
+     *                                velocity
+     * @param scratchProfile
+     *                                profile re-planned for moves that don't
+     *                                start from a known state
+     * @param clock
+     *                                time source for following profiles
+     */
+    public ArmControlLoop(PIDConstants pidConstants, RangeIn<Position> armAngle, RangeOut<Percent> arm,
+            double gravityFeedforward, double velocityFeedforward, TrapezoidProfile scratchProfile, Clock clock)
+    {
+        this.arm = arm;
+        this.gravityFeedforward = gravityFeedforward;
+        this.velocityFeedforward = velocityFeedforward;
+        this.scratchProfile = scratchProfile;
+        this.clock = clock;
+        // the controller writes through this so feedforward is added to its
+        // output
+        controller = new SynchronousPIDController<Percent, Position>(pidConstants, armAngle,
+                new RangeOut<Percent>(this::writeWithFeedforward, -1, 1));
+    }
+
+    public void setInputRange(double minAngle, double maxAngle)
+    {
+        controller.setInputRange(minAngle, maxAngle);
+    }
+
+    private void writeWithFeedforward(double pidOutput)
+    {
+        arm.set(pidOutput + feedforward);
+    }
+
+    /**
+     * runs the control loop on its own thread from now on
+     * 
+     * @param hz
+     *               rate to step the controller at
+     */
+    public void runThreaded(double hz)
+    {
+        periodNanos = (long) (1e9 / hz);
+        double period = 1 / hz;
+        jitter = new LatencyHistogram("period jitter", period / 2, JITTER_BUCKET_NANOS);
+        stepTime = new LatencyHistogram("step time", period, JITTER_BUCKET_NANOS);
+    }
+
+    public boolean isThreaded()
+    {
+        return periodNanos > 0;
+    }
+
+    /**
+     * moves straight to a setpoint with no profile or feedforward. Safe to
+     * call from any thread
+     */
+    public void setSetpoint(double setpoint)
+    {
+        synchronized (stepLock)
+        {
+            profile = null;
+            feedforward = 0;
+            this.setpoint = setpoint;
+        }
+    }
+
+    /**
+     * starts following a profile planned ahead of time. Safe to call from any
+     * thread
+     */
+    public void follow(TrapezoidProfile profile)
+    {
+        synchronized (stepLock)
+        {
+            this.profile = profile;
+            profileStart = clock.getSeconds();
+            setpoint = profile.getStart();
+        }
+    }
+
+    /**
+     * plans a profile from an arbitrary angle and starts following it. Only
+     * needed when a move doesn't start from a known state
+     */
+    public void follow(double start, double end)
+    {
+        synchronized (stepLock)
+        {
+            follow(scratchProfile.plan(start, end));
+        }
+    }
+
+    /**
+     * starts stepping the controller, starting the loop thread if needed
+     */
+    public void enable()
+    {
+        feed();
+        enabled = true;
+        if (isThreaded())
+        {
+            synchronized (lifecycleLock)
+            {
+                if (!running)
+                {
+                    running = true;
+                    Thread thread = new Thread(this::run, "arm control loop");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MAX_PRIORITY);
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    /**
+     * stops stepping the controller. Once this returns no step is in progress,
+     * so the caller may write the output directly
+     */
+    public void disable()
+    {
+        synchronized (stepLock)
+        {
+            enabled = false;
+        }
+    }
+
+    /**
+     * tells a threaded loop that the main loop still wants it running
+     */
+    public void feed()
+    {
+        lastFedNanos = System.nanoTime();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * samples the profile, applies the latest setpoint and steps the
+     * controller once, if enabled
+     */
+    public void step()
+    {
+        synchronized (stepLock)
+        {
+            if (!enabled)
+            {
+                return;
+            }
+            if (profile != null)
+            {
+                double t = clock.getSeconds() - profileStart;
+                setpoint = profile.getPosition(t);
+                feedforward = gravityFeedforward * Math.cos(Math.toRadians(setpoint))
+                        + velocityFeedforward * profile.getVelocity(t);
+            }
+            double target = setpoint;
+            if (target != appliedSetpoint)
+            {
+                controller.setSetpoint(target);
+                appliedSetpoint = target;
+            }
+            controller.update();
+        }
+    }
+
+    private void run()
+    {
+        long feedTimeoutNanos = (long) (FEED_TIMEOUT * 1e9);
+        long idleExitNanos = (long) (IDLE_EXIT * 1e9);
+        long next = System.nanoTime();
+        long lastStart = 0;
+        long lastWork = next;
+        while (true)
+        {
+            next += periodNanos;
+            long now;
+            while ((now = System.nanoTime()) < next)
+            {
+                LockSupport.parkNanos(next - now);
+            }
+            if (lastStart != 0)
+            {
+                jitter.record(Math.abs(now - lastStart - periodNanos));
+            }
+            lastStart = now;
+
+            if (enabled && now - lastFedNanos > feedTimeoutNanos)
+            {
+                // the main loop has stalled, so nothing else will stop the
+                // motor
+                synchronized (stepLock)
+                {
+                    // checked again, as the main loop may have fed the loop,
+                    // or disabled it and written the motor itself, while
+                    // this thread waited for the lock
+                    if (enabled && System.nanoTime() - lastFedNanos > feedTimeoutNanos)
+                    {
+                        enabled = false;
+                        arm.set(0);
+                    }
+                }
+            }
+            if (enabled)
+            {
+                step();
+                stepTime.recordSince(now);
+                lastWork = now;
+            }
+            else if (now - lastWork > idleExitNanos && exitIfIdle())
+            {
+                return;
+            }
+            // skip any periods missed while overrunning instead of bursting
+            if (next < now - periodNanos)
+            {
+                next = now;
+            }
+        }
+    }
+
+    private boolean exitIfIdle()
+    {
+        synchronized (lifecycleLock)
+        {
+            if (enabled)
+            {
+                return false;
+            }
+            running = false;
+            return true;
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return "arm control loop";
+    }
+
+    /**
+     * adds the setpoint being followed, and period jitter and step time
+     * percentiles while threaded; the loop's output already shows up as the
+     * arm motor
+     */
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        stem.put(TelemetryChannel.number("arm/control loop/setpoint", () -> setpoint));
+        if (isThreaded())
+        {
+            jitter.getTelemetryChannels("arm/control loop", stem);
+            stepTime.getTelemetryChannels("arm/control loop", stem);
+        }
+        return stem;
+    }
+
+    @Override
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        stem.put(new NumberInfo("setpoint", () -> setpoint));
+        return isThreaded() ? stem.put(new NumberInfo("rate hz", () -> 1e9 / periodNanos), jitter, stepTime) : stem;
+    }
+}
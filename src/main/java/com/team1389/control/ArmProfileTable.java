@@ -0,0 +1,37 @@
+package com.team1389.control;
+
+import com.team1389.systems.Arm;
+
+/**
+ * a motion profile for every pair of arm states, planned once when the table
+ * is built so starting a move is just a lookup
+ */
+public class ArmProfileTable
+{
+    private final TrapezoidProfile[][] profiles;
+
+    /**
+     * @param maxVelocity
+     *                            in degrees per second
+     * @param maxAcceleration
+     *                            in degrees per second squared
+     */
+    public ArmProfileTable(double maxVelocity, double maxAcceleration)
+    {
+        Arm.State[] states = Arm.State.values();
+        profiles = new TrapezoidProfile[states.length][states.length];
+        for (Arm.State from : states)
+        {
+            for (Arm.State to : states)
+            {
+                profiles[from.ordinal()][to.ordinal()] = new TrapezoidProfile(maxVelocity, maxAcceleration)
+                        .plan(from.getAngle(), to.getAngle());
+            }
+        }
+    }
+
+    public TrapezoidProfile get(Arm.State from, Arm.State to)
+    {
+        return profiles[from.ordinal()][to.ordinal()];
+    }
+}
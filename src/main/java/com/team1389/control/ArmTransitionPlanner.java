@@ -0,0 +1,277 @@
+package com.team1389.control;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import com.team1389.systems.Arm;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * plans the fastest way between arm states from how long each move has
+ * actually taken. Every move starts out costed at its motion profile's
+ * duration plus a fixed allowance for settling, so until something has been
+ * measured the direct move always wins. Each finished move then pulls its
+ * cost towards the measured time, and a route through another state is taken
+ * only once it has proven faster than going direct.
+ * <p>
+ * Costs are saved in a small file so they carry over between reboots.
+ * Little-endian:
+ *
+ * <pre>
+ * header: int magic, short version, short state count, int state hash
+ * moves:  float seconds, int samples, for every from state then to state
+ * </pre>
+ *
+ * Routes are planned into arrays owned by the planner, so planning doesn't
+ * allocate but isn't safe from more than one thread
+ */
+public class ArmTransitionPlanner
+{
+    public static final int MAGIC = 0x434d5241;
+    public static final short VERSION = 1;
+    public static final String FILE_NAME = "arm_costs.bin";
+    // how far each measurement moves the cost towards it
+    private static final double WEIGHT = 0.25;
+
+    private final Arm.State[] states = Arm.State.values();
+    private final double[][] seconds;
+    private final int[][] samples;
+    private boolean changed;
+
+    // scratch for planning
+    private final double[] best;
+    private final int[] previous;
+    private final boolean[] visited;
+
+    /**
+     * @param profiles
+     *                              the arm's planned moves, for the cost of
+     *                              moves that haven't been measured
+     * @param settleSeconds
+     *                              added to every profile's duration, for the
+     *                              arm to settle at the end of it
+     */
+    public ArmTransitionPlanner(ArmProfileTable profiles, double settleSeconds)
+    {
+        int count = states.length;
+        seconds = new double[count][count];
+        samples = new int[count][count];
+        for (Arm.State from : states)
+        {
+            for (Arm.State to : states)
+            {
+                seconds[from.ordinal()][to.ordinal()] = profiles.get(from, to).getDuration() + settleSeconds;
+            }
+        }
+        best = new double[count];
+        previous = new int[count];
+        visited = new boolean[count];
+    }
+
+    /**
+     * @return where costs are kept on the robot
+     */
+    public static Path getDeployFile()
+    {
+        return Filesystem.getDeployDirectory().toPath().resolve(FILE_NAME);
+    }
+
+    /**
+     * folds in how long a move took, from settled at one state to settled at
+     * another
+     */
+    public void record(Arm.State from, Arm.State to, double measuredSeconds)
+    {
+        int f = from.ordinal();
+        int t = to.ordinal();
+        // the first measurement replaces the estimate outright
+        seconds[f][t] = samples[f][t] == 0 ? measuredSeconds
+                : seconds[f][t] + WEIGHT * (measuredSeconds - seconds[f][t]);
+        samples[f][t]++;
+        changed = true;
+    }
+
+    public double getCost(Arm.State from, Arm.State to)
+    {
+        return seconds[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * @return how many times the move has been measured
+     */
+    public int getSamples(Arm.State from, Arm.State to)
+    {
+        return samples[from.ordinal()][to.ordinal()];
+    }
+
+    /**
+     * finds the fastest route, preferring fewer moves when routes cost the
+     * same
+     *
+     * @param route
+     *                  filled with the states to move to in order, ending with
+     *                  to; needs room for every state
+     * @return how many states were put in the route, 0 if from is to
+     */
+    public int plan(Arm.State from, Arm.State to, Arm.State[] route)
+    {
+        if (from == to)
+        {
+            return 0;
+        }
+        int count = states.length;
+        for (int i = 0; i < count; i++)
+        {
+            best[i] = Double.POSITIVE_INFINITY;
+            previous[i] = -1;
+            visited[i] = false;
+        }
+        best[from.ordinal()] = 0;
+        // dense graph of a handful of states, so a linear scan beats a heap
+        for (int round = 0; round < count; round++)
+        {
+            int next = -1;
+            for (int i = 0; i < count; i++)
+            {
+                if (!visited[i] && (next < 0 || best[i] < best[next]))
+                {
+                    next = i;
+                }
+            }
+            if (next == to.ordinal())
+            {
+                break;
+            }
+            visited[next] = true;
+            for (int i = 0; i < count; i++)
+            {
+                double cost = best[next] + seconds[next][i];
+                if (!visited[i] && cost < best[i])
+                {
+                    best[i] = cost;
+                    previous[i] = next;
+                }
+            }
+        }
+
+        int length = 0;
+        for (int i = to.ordinal(); i != from.ordinal(); i = previous[i])
+        {
+            length++;
+        }
+        int at = length;
+        for (int i = to.ordinal(); i != from.ordinal(); i = previous[i])
+        {
+            route[--at] = states[i];
+        }
+        return length;
+    }
+
+    /**
+     * @return true if a move has been measured since the costs were last
+     *         loaded or saved
+     */
+    public boolean isChanged()
+    {
+        return changed;
+    }
+
+    /**
+     * replaces the costs with saved ones
+     *
+     * @return false, keeping the current costs, if there is no file, it was
+     *         saved with different arm states or any cost in it is negative or
+     *         not a number
+     */
+    public boolean load(Path file)
+    {
+        if (!Files.exists(file))
+        {
+            return false;
+        }
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            int count = states.length;
+            if (buffer.remaining() != 12 + count * count * 8 || buffer.getInt() != MAGIC
+                    || buffer.getShort() != VERSION || buffer.getShort() != count || buffer.getInt() != stateHash())
+            {
+                System.out.println("ignoring " + file + ": saved for different arm states");
+                return false;
+            }
+            // check every cost before touching the current ones, so a bad
+            // file can't leave the planner half loaded
+            double[] loadedSeconds = new double[count * count];
+            int[] loadedSamples = new int[count * count];
+            for (int i = 0; i < count * count; i++)
+            {
+                loadedSeconds[i] = buffer.getFloat();
+                loadedSamples[i] = buffer.getInt();
+                if (!Double.isFinite(loadedSeconds[i]) || loadedSeconds[i] < 0 || loadedSamples[i] < 0)
+                {
+                    System.out.println("ignoring " + file + ": corrupt cost for move " + states[i / count] + " to "
+                            + states[i % count]);
+                    return false;
+                }
+            }
+            for (int f = 0; f < count; f++)
+            {
+                for (int t = 0; t < count; t++)
+                {
+                    seconds[f][t] = loadedSeconds[f * count + t];
+                    samples[f][t] = loadedSamples[f * count + t];
+                }
+            }
+            changed = false;
+            return true;
+        }
+        catch (IOException e)
+        {
+            System.out.println("couldn't load arm costs: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * writes the costs to a temporary file, then moves it over the old one so
+     * losing power part way through leaves the last costs intact
+     */
+    public void save(Path file) throws IOException
+    {
+        int count = states.length;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + count * count * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) count);
+        buffer.putInt(stateHash());
+        for (int f = 0; f < count; f++)
+        {
+            for (int t = 0; t < count; t++)
+            {
+                buffer.putFloat((float) seconds[f][t]);
+                buffer.putInt(samples[f][t]);
+            }
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        changed = false;
+    }
+
+    // costs are stored by ordinal, so they only apply to the same states
+    private int stateHash()
+    {
+        int hash = 1;
+        for (Arm.State state : states)
+        {
+            hash = 31 * hash + state.name().hashCode();
+            hash = 31 * hash + Double.hashCode(state.getAngle());
+        }
+        return hash;
+    }
+}
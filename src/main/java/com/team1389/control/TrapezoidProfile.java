@@ -0,0 +1,136 @@
+package com.team1389.control;
+
+/**
+ * a trapezoidal motion profile between two positions: accelerate at a
+ * constant rate, cruise at the maximum velocity, then decelerate to a stop. If
+ * the move is too short to reach the maximum velocity the profile is
+ * triangular. All of the profile's shape is worked out in {@link #plan}, so
+ * sampling it only costs a few multiplications
+ */
+public class TrapezoidProfile
+{
+    private final double maxVelocity;
+    private final double maxAcceleration;
+
+    private double start;
+    private double end;
+    private double direction;
+    private double peakVelocity;
+    private double accelTime;
+    private double cruiseTime;
+    private double accelDistance;
+    private double cruiseDistance;
+    private double duration;
+
+    /**
+     * @param maxVelocity
+     *                            in units per second
+     * @param maxAcceleration
+     *                            in units per second squared
+     */
+    public TrapezoidProfile(double maxVelocity, double maxAcceleration)
+    {
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+    }
+
+    /**
+     * works out the profile from start to end, replacing any previous plan
+     * 
+     * @return this profile
+     */
+    public TrapezoidProfile plan(double start, double end)
+    {
+        this.start = start;
+        this.end = end;
+        double distance = Math.abs(end - start);
+        direction = Math.signum(end - start);
+
+        // a triangle if we can't reach max velocity before we have to slow down
+        double fullAccelDistance = maxVelocity * maxVelocity / maxAcceleration;
+        if (distance < fullAccelDistance)
+        {
+            peakVelocity = Math.sqrt(distance * maxAcceleration);
+        }
+        else
+        {
+            peakVelocity = maxVelocity;
+        }
+        accelTime = peakVelocity / maxAcceleration;
+        accelDistance = 0.5 * maxAcceleration * accelTime * accelTime;
+        cruiseDistance = distance - 2 * accelDistance;
+        cruiseTime = peakVelocity == 0 ? 0 : cruiseDistance / peakVelocity;
+        duration = 2 * accelTime + cruiseTime;
+        return this;
+    }
+
+    /**
+     * @param t
+     *              seconds since the start of the profile
+     */
+    public double getPosition(double t)
+    {
+        if (t <= 0)
+        {
+            return start;
+        }
+        if (t >= duration)
+        {
+            return end;
+        }
+        double travelled;
+        if (t < accelTime)
+        {
+            travelled = 0.5 * maxAcceleration * t * t;
+        }
+        else if (t < accelTime + cruiseTime)
+        {
+            travelled = accelDistance + peakVelocity * (t - accelTime);
+        }
+        else
+        {
+            double remaining = duration - t;
+            travelled = accelDistance * 2 + cruiseDistance - 0.5 * maxAcceleration * remaining * remaining;
+        }
+        return start + direction * travelled;
+    }
+
+    /**
+     * @param t
+     *              seconds since the start of the profile
+     */
+    public double getVelocity(double t)
+    {
+        if (t <= 0 || t >= duration)
+        {
+            return 0;
+        }
+        if (t < accelTime)
+        {
+            return direction * maxAcceleration * t;
+        }
+        if (t < accelTime + cruiseTime)
+        {
+            return direction * peakVelocity;
+        }
+        return direction * maxAcceleration * (duration - t);
+    }
+
+    public double getStart()
+    {
+        return start;
+    }
+
+    public double getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * @return how long the profile takes, in seconds
+     */
+    public double getDuration()
+    {
+        return duration;
+    }
+}
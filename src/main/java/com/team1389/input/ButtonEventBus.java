@@ -0,0 +1,149 @@
+package com.team1389.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.team1389.hardware.inputs.software.DigitalIn;
+
+/**
+ * dispatches actions on debounced rising and falling edges of buttons instead
+ * of on every loop a button is held. Buttons are checked in the order they are
+ * registered; when several are pressed in the same loop only the first
+ * registered press fires. The other presses stay pending and fire on a later
+ * loop if their buttons are still held, as an if/else chain over the same
+ * buttons would act on them once the first button is let go
+ */
+public class ButtonEventBus
+{
+    private static final Runnable NO_ACTION = () ->
+    {
+    };
+
+    private final List<Binding> bindings = new ArrayList<>();
+    private final int defaultDebounceLoops;
+
+    /**
+     * @param defaultDebounceLoops
+     *                                 number of consecutive loops a button must
+     *                                 read a new value before the change is
+     *                                 accepted (1 disables debouncing)
+     */
+    public ButtonEventBus(int defaultDebounceLoops)
+    {
+        this.defaultDebounceLoops = Math.max(1, defaultDebounceLoops);
+    }
+
+    /**
+     * registers an action to run once each time the button is pressed
+     */
+    public ButtonEventBus onPress(DigitalIn button, Runnable action)
+    {
+        return bind(button, defaultDebounceLoops, action, NO_ACTION);
+    }
+
+    /**
+     * registers actions to run once when the button is pressed and once when
+     * it is released
+     * 
+     * @param debounceLoops
+     *                          debounce for this button only
+     */
+    public ButtonEventBus bind(DigitalIn button, int debounceLoops, Runnable onPress, Runnable onRelease)
+    {
+        bindings.add(new Binding(button, Math.max(1, debounceLoops), onPress, onRelease));
+        return this;
+    }
+
+    /**
+     * samples every button once and fires the actions for any edges
+     */
+    public void update()
+    {
+        Binding pressed = null;
+        for (int i = 0; i < bindings.size(); i++)
+        {
+            Binding binding = bindings.get(i);
+            if (!binding.sample())
+            {
+                continue;
+            }
+            if (binding.candidate)
+            {
+                // a press that loses to an earlier binding isn't accepted,
+                // so it is seen again next loop
+                if (pressed == null)
+                {
+                    pressed = binding;
+                    binding.stable = true;
+                }
+            }
+            else
+            {
+                binding.stable = false;
+                binding.onRelease.run();
+            }
+        }
+        if (pressed != null)
+        {
+            pressed.onPress.run();
+        }
+    }
+
+    /**
+     * forgets the current button states, so a button that is already held
+     * will fire again once it is seen after the debounce period
+     */
+    public void reset()
+    {
+        for (int i = 0; i < bindings.size(); i++)
+        {
+            bindings.get(i).reset();
+        }
+    }
+
+    private static class Binding
+    {
+        final DigitalIn button;
+        final int debounceLoops;
+        final Runnable onPress;
+        final Runnable onRelease;
+
+        boolean stable;
+        boolean candidate;
+        int candidateLoops;
+
+        Binding(DigitalIn button, int debounceLoops, Runnable onPress, Runnable onRelease)
+        {
+            this.button = button;
+            this.debounceLoops = debounceLoops;
+            this.onPress = onPress;
+            this.onRelease = onRelease;
+        }
+
+        /**
+         * @return true if the button has held a new value for the debounce
+         *         period; the caller accepts it by updating stable
+         */
+        boolean sample()
+        {
+            boolean raw = button.get();
+            if (raw != candidate)
+            {
+                candidate = raw;
+                candidateLoops = 0;
+            }
+            if (candidateLoops < debounceLoops)
+            {
+                candidateLoops++;
+            }
+            return candidate != stable && candidateLoops >= debounceLoops;
+        }
+
+        void reset()
+        {
+            stable = false;
+            candidate = false;
+            candidateLoops = 0;
+        }
+    }
+}
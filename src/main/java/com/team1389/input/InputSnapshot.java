@@ -0,0 +1,215 @@
+package com.team1389.input;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.team1389.hardware.inputs.software.DigitalIn;
+import com.team1389.hardware.inputs.software.RangeIn;
+import com.team1389.hardware.value_types.Value;
+
+/**
+ * reads every registered input exactly once per loop. Subsystems are handed
+ * the cached inputs from {@link #snapshot(DigitalIn)} and
+ * {@link #snapshot(Class, RangeIn, double, double)}, which return the value
+ * from the last {@link #sample()} no matter how many times they are read, so
+ * everything in a loop sees the same state.
+ * <p>
+ * Inputs are registered either as driver controls, which a macro records and
+ * plays back, or with {@link #sensor(DigitalIn)} and
+ * {@link #sensor(Class, RangeIn, double, double)} as sensors, which are read
+ * from the robot even while a macro is playing.
+ * <p>
+ * Don't snapshot inputs read by the arm control thread; it needs fresher
+ * values than the main loop takes
+ */
+public class InputSnapshot
+{
+    private final List<DigitalIn> digitalSources = new ArrayList<>();
+    private final List<RangeIn<?>> rangeSources = new ArrayList<>();
+    private boolean[] digitalValues = new boolean[0];
+    private double[] rangeValues = new double[0];
+    private double[] rangeMins = new double[0];
+    private double[] rangeMaxes = new double[0];
+    private boolean[] digitalSensors = new boolean[0];
+    private boolean[] rangeSensors = new boolean[0];
+    private long samples;
+
+    /**
+     * registers a driver control
+     */
+    public DigitalIn snapshot(DigitalIn source)
+    {
+        return add(source, false);
+    }
+
+    /**
+     * registers a driver control
+     * 
+     * @param min
+     *                minimum value of the source
+     * @param max
+     *                maximum value of the source
+     */
+    public <T extends Value> RangeIn<T> snapshot(Class<T> type, RangeIn<T> source, double min, double max)
+    {
+        return add(type, source, min, max, false);
+    }
+
+    /**
+     * registers a sensor on the robot, like a beam break or limit switch
+     */
+    public DigitalIn sensor(DigitalIn source)
+    {
+        return add(source, true);
+    }
+
+    /**
+     * registers a sensor on the robot
+     * 
+     * @param min
+     *                minimum value of the source
+     * @param max
+     *                maximum value of the source
+     */
+    public <T extends Value> RangeIn<T> sensor(Class<T> type, RangeIn<T> source, double min, double max)
+    {
+        return add(type, source, min, max, true);
+    }
+
+    private DigitalIn add(DigitalIn source, boolean sensor)
+    {
+        int index = digitalSources.size();
+        digitalSources.add(source);
+        digitalValues = Arrays.copyOf(digitalValues, digitalSources.size());
+        digitalSensors = Arrays.copyOf(digitalSensors, digitalSources.size());
+        digitalSensors[index] = sensor;
+        return new DigitalIn(() -> digitalValues[index]);
+    }
+
+    private <T extends Value> RangeIn<T> add(Class<T> type, RangeIn<T> source, double min, double max,
+            boolean sensor)
+    {
+        int index = rangeSources.size();
+        rangeSources.add(source);
+        rangeValues = Arrays.copyOf(rangeValues, rangeSources.size());
+        rangeMins = Arrays.copyOf(rangeMins, rangeSources.size());
+        rangeMaxes = Arrays.copyOf(rangeMaxes, rangeSources.size());
+        rangeSensors = Arrays.copyOf(rangeSensors, rangeSources.size());
+        rangeMins[index] = min;
+        rangeMaxes[index] = max;
+        rangeSensors[index] = sensor;
+        return new RangeIn<>(type, () -> rangeValues[index], min, max);
+    }
+
+    /**
+     * reads every source. Call once at the top of every loop, before any
+     * subsystem updates
+     */
+    public void sample()
+    {
+        for (int i = 0; i < digitalValues.length; i++)
+        {
+            digitalValues[i] = digitalSources.get(i).get();
+        }
+        for (int i = 0; i < rangeValues.length; i++)
+        {
+            rangeValues[i] = rangeSources.get(i).get();
+        }
+        samples++;
+    }
+
+    /**
+     * reads only the sensors, leaving driver controls as they were set. Call
+     * in place of {@link #sample()} while a macro plays the controls back
+     */
+    public void sampleSensors()
+    {
+        for (int i = 0; i < digitalValues.length; i++)
+        {
+            if (digitalSensors[i])
+            {
+                digitalValues[i] = digitalSources.get(i).get();
+            }
+        }
+        for (int i = 0; i < rangeValues.length; i++)
+        {
+            if (rangeSensors[i])
+            {
+                rangeValues[i] = rangeSources.get(i).get();
+            }
+        }
+        samples++;
+    }
+
+    public int getDigitalCount()
+    {
+        return digitalValues.length;
+    }
+
+    public boolean isDigitalSensor(int index)
+    {
+        return digitalSensors[index];
+    }
+
+    public boolean getDigital(int index)
+    {
+        return digitalValues[index];
+    }
+
+    /**
+     * overrides a sampled value until the next {@link #sample()}, for playing
+     * back recorded input
+     */
+    public void setDigital(int index, boolean value)
+    {
+        digitalValues[index] = value;
+    }
+
+    public int getRangeCount()
+    {
+        return rangeValues.length;
+    }
+
+    public boolean isRangeSensor(int index)
+    {
+        return rangeSensors[index];
+    }
+
+    public double getRange(int index)
+    {
+        return rangeValues[index];
+    }
+
+    /**
+     * overrides a sampled value until the next {@link #sample()}, for playing
+     * back recorded input
+     */
+    public void setRange(int index, double value)
+    {
+        rangeValues[index] = value;
+    }
+
+    public double getRangeMin(int index)
+    {
+        return rangeMins[index];
+    }
+
+    public double getRangeMax(int index)
+    {
+        return rangeMaxes[index];
+    }
+
+    /**
+     * @return how many source reads a loop costs
+     */
+    public int getSourceCount()
+    {
+        return digitalValues.length + rangeValues.length;
+    }
+
+    public long getSamples()
+    {
+        return samples;
+    }
+}
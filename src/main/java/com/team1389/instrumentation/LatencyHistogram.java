@@ -0,0 +1,194 @@
+package com.team1389.instrumentation;
+
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.CompositeWatchable;
+import com.team1389.watch.Watchable;
+import com.team1389.watch.info.NumberInfo;
+
+/**
+ * fixed-memory histogram of loop durations. Samples are counted into
+ * {@value #BUCKETS} equal buckets (50us wide by default), with one overflow
+ * bucket, so recording never allocates and percentiles are only computed when
+ * they are read
+ */
+public class LatencyHistogram implements CompositeWatchable
+{
+    public static final long DEFAULT_BUCKET_NANOS = 50_000;
+    public static final int BUCKETS = 1000;
+    // samples between recomputing the percentiles sent as telemetry
+    private static final int SUMMARY_SAMPLES = 50;
+
+    private final String name;
+    private final long budgetNanos;
+    private final long bucketNanos;
+    private final long[] buckets = new long[BUCKETS + 1];
+
+    private long count;
+    private long overruns;
+    private long lastNanos;
+    private long maxNanos;
+
+    // percentiles as of the last summary; telemetry reads these every loop
+    private long summarizedCount = -1;
+    private double summaryP50;
+    private double summaryP99;
+
+    /**
+     * @param name
+     *                        name to publish the histogram under
+     * @param budgetSeconds
+     *                        samples longer than this are counted as overruns
+     * @param bucketNanos
+     *                        width of each bucket; the histogram covers
+     *                        {@value #BUCKETS} of them
+     */
+    public LatencyHistogram(String name, double budgetSeconds, long bucketNanos)
+    {
+        this.name = name;
+        this.budgetNanos = (long) (budgetSeconds * 1e9);
+        this.bucketNanos = bucketNanos;
+    }
+
+    public LatencyHistogram(String name, double budgetSeconds)
+    {
+        this(name, budgetSeconds, DEFAULT_BUCKET_NANOS);
+    }
+
+    public void record(long nanos)
+    {
+        int bucket = (int) Math.min(nanos / bucketNanos, BUCKETS);
+        buckets[bucket]++;
+        count++;
+        lastNanos = nanos;
+        if (nanos > maxNanos)
+        {
+            maxNanos = nanos;
+        }
+        if (nanos > budgetNanos)
+        {
+            overruns++;
+        }
+    }
+
+    /**
+     * records the time since the given {@link System#nanoTime()} reading
+     * 
+     * @return the recorded duration in nanoseconds
+     */
+    public long recordSince(long startNanos)
+    {
+        long elapsed = System.nanoTime() - startNanos;
+        record(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * @param percentile
+     *                       between 0 and 1
+     * @return the upper edge of the bucket containing the given percentile, in
+     *         milliseconds
+     */
+    public double getPercentileMillis(double percentile)
+    {
+        if (count == 0)
+        {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += buckets[i];
+            if (seen >= target)
+            {
+                return Math.min((i + 1) * bucketNanos, maxNanos) / 1e6;
+            }
+        }
+        return maxNanos / 1e6;
+    }
+
+    public double getMaxMillis()
+    {
+        return maxNanos / 1e6;
+    }
+
+    public double getLastMillis()
+    {
+        return lastNanos / 1e6;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getOverruns()
+    {
+        return overruns;
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = 0;
+        }
+        count = 0;
+        overruns = 0;
+        lastNanos = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * channels for the median, 99th percentile and max, named after this
+     * histogram within the given group. Telemetry samples every channel every
+     * loop, so the percentiles are only recomputed every
+     * {@value #SUMMARY_SAMPLES} samples
+     */
+    public AddList<TelemetryChannel> getTelemetryChannels(String group, AddList<TelemetryChannel> stem)
+    {
+        String prefix = group + "/" + name;
+        return stem.put(TelemetryChannel.number(prefix + " p50 ms", this::getSummaryP50Millis).atRate(Rate.ONE_HZ),
+                TelemetryChannel.number(prefix + " p99 ms", this::getSummaryP99Millis).atRate(Rate.ONE_HZ),
+                TelemetryChannel.number(prefix + " max ms", this::getMaxMillis).atRate(Rate.ONE_HZ));
+    }
+
+    private double getSummaryP50Millis()
+    {
+        summarize();
+        return summaryP50;
+    }
+
+    private double getSummaryP99Millis()
+    {
+        summarize();
+        return summaryP99;
+    }
+
+    private void summarize()
+    {
+        if (summarizedCount < 0 || count < summarizedCount || count - summarizedCount >= SUMMARY_SAMPLES)
+        {
+            summaryP50 = getPercentileMillis(0.5);
+            summaryP99 = getPercentileMillis(0.99);
+            summarizedCount = count;
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        return stem.put(new NumberInfo("p50 ms", () -> getPercentileMillis(0.5)),
+                new NumberInfo("p99 ms", () -> getPercentileMillis(0.99)), new NumberInfo("max ms", this::getMaxMillis),
+                new NumberInfo("last ms", this::getLastMillis), new NumberInfo("count", this::getCount),
+                new NumberInfo("overruns", this::getOverruns));
+    }
+}
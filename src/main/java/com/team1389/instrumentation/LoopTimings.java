@@ -0,0 +1,65 @@
+package com.team1389.instrumentation;
+
+import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.CompositeWatchable;
+import com.team1389.watch.Watchable;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+
+/**
+ * latency histograms for each periodic call of the robot and for the system
+ * manager, all measured against the {@link TimedRobot} period
+ */
+public class LoopTimings implements CompositeWatchable, TelemetrySource
+{
+    public static final double LOOP_BUDGET = TimedRobot.kDefaultPeriod;
+
+    public final LatencyHistogram autonomousPeriodic = new LatencyHistogram("autonomous periodic", LOOP_BUDGET);
+    public final LatencyHistogram teleopPeriodic = new LatencyHistogram("teleop periodic", LOOP_BUDGET);
+    public final LatencyHistogram disabledPeriodic = new LatencyHistogram("disabled periodic", LOOP_BUDGET);
+    public final LatencyHistogram systemUpdate = new LatencyHistogram("system manager update", LOOP_BUDGET);
+
+    /**
+     * wraps each subsystem so its update time is recorded
+     */
+    public Subsystem[] timed(Subsystem... subsystems)
+    {
+        Subsystem[] timed = new Subsystem[subsystems.length];
+        for (int i = 0; i < subsystems.length; i++)
+        {
+            timed[i] = new TimedSubsystem(subsystems[i], LOOP_BUDGET);
+        }
+        return timed;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Loop Timing";
+    }
+
+    @Override
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        return stem.put(autonomousPeriodic, teleopPeriodic, disabledPeriodic, systemUpdate);
+    }
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        stem.put(TelemetryChannel.number("loop/teleop periodic ms", teleopPeriodic::getLastMillis).atRate(Rate.TEN_HZ),
+                TelemetryChannel.number("loop/system update ms", systemUpdate::getLastMillis).atRate(Rate.TEN_HZ),
+                TelemetryChannel.number("loop/teleop periodic overruns", teleopPeriodic::getOverruns)
+                        .atRate(Rate.ONE_HZ));
+        for (LatencyHistogram histogram : new LatencyHistogram[] { autonomousPeriodic, teleopPeriodic, disabledPeriodic,
+                systemUpdate })
+        {
+            histogram.getTelemetryChannels("loop", stem);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,148 @@
+package com.team1389.instrumentation;
+
+import com.team1389.commands.Clock;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+
+/**
+ * watches loop times against a budget and decides how much deferrable work to
+ * shed. A few loops in a row over {@value #SHED_FRACTION} of the budget sheds
+ * one more {@link Level}; a long run under {@value #RESTORE_FRACTION} of it
+ * restores one. Every change is kept in a fixed-size event log that can be
+ * printed once the robot is disabled
+ */
+public class LoopWatchdog implements TelemetrySource
+{
+    public static final double SHED_FRACTION = 0.8;
+    public static final double RESTORE_FRACTION = 0.5;
+    public static final int SHED_LOOPS = 3;
+    public static final int RESTORE_LOOPS = 50;
+    private static final int EVENTS = 64;
+
+    /**
+     * what is shed, in the order it is shed. Each level includes everything
+     * before it
+     */
+    public enum Level
+    {
+        /** everything runs */
+        NONE,
+        /** telemetry is sampled at 10 Hz instead of every loop */
+        SLOW_TELEMETRY,
+        /** telemetry isn't sampled at all */
+        NO_TELEMETRY,
+        /** low-priority subsystems don't update */
+        NO_LOW_PRIORITY
+    }
+
+    private final long budgetNanos;
+    private final Clock clock;
+    private Level level = Level.NONE;
+    private int overLoops;
+    private int underLoops;
+    private long sheds;
+    private long restores;
+
+    private final double[] eventTimes = new double[EVENTS];
+    private final Level[] eventLevels = new Level[EVENTS];
+    private final double[] eventMillis = new double[EVENTS];
+    private int events;
+
+    /**
+     * @param budgetSeconds
+     *                          time each loop has to finish in
+     * @param clock
+     *                          time source for event timestamps
+     */
+    public LoopWatchdog(double budgetSeconds, Clock clock)
+    {
+        this.budgetNanos = (long) (budgetSeconds * 1e9);
+        this.clock = clock;
+    }
+
+    /**
+     * call with the length of every loop
+     */
+    public void record(long nanos)
+    {
+        if (nanos > budgetNanos * SHED_FRACTION)
+        {
+            underLoops = 0;
+            if (++overLoops >= SHED_LOOPS && level.ordinal() < Level.values().length - 1)
+            {
+                change(Level.values()[level.ordinal() + 1], nanos);
+                sheds++;
+            }
+        }
+        else if (nanos < budgetNanos * RESTORE_FRACTION)
+        {
+            overLoops = 0;
+            if (++underLoops >= RESTORE_LOOPS && level != Level.NONE)
+            {
+                change(Level.values()[level.ordinal() - 1], nanos);
+                restores++;
+            }
+        }
+        else
+        {
+            overLoops = 0;
+            underLoops = 0;
+        }
+    }
+
+    private void change(Level to, long nanos)
+    {
+        int slot = events++ % EVENTS;
+        eventTimes[slot] = clock.getSeconds();
+        eventLevels[slot] = to;
+        eventMillis[slot] = nanos / 1e6;
+        level = to;
+        overLoops = 0;
+        underLoops = 0;
+    }
+
+    public Level getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * @return whether work at the given level is currently being shed
+     */
+    public boolean isShedding(Level work)
+    {
+        return level.compareTo(work) >= 0;
+    }
+
+    public long getSheds()
+    {
+        return sheds;
+    }
+
+    public long getRestores()
+    {
+        return restores;
+    }
+
+    /**
+     * prints the most recent level changes, oldest first
+     */
+    public void printEvents()
+    {
+        for (int i = Math.max(0, events - EVENTS); i < events; i++)
+        {
+            int slot = i % EVENTS;
+            System.out.printf("%.3f s: %s after a %.2f ms loop%n", eventTimes[slot], eventLevels[slot],
+                    eventMillis[slot]);
+        }
+    }
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.enumeration("loop/shed level", Level.class, () -> level.ordinal()),
+                TelemetryChannel.number("loop/sheds", this::getSheds).atRate(Rate.ONE_HZ));
+    }
+}
@@ -0,0 +1,60 @@
+package com.team1389.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * breaks a startup sequence into named phases and prints how long each took,
+ * along with how long the JVM had been running before the sequence started
+ */
+public class StartupTimer
+{
+    private final String name;
+    private final long start = System.nanoTime();
+    private long last = start;
+    private final List<String> phases = new ArrayList<>();
+    private final List<Long> durations = new ArrayList<>();
+
+    public StartupTimer(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * ends the current phase, which started at the previous mark
+     */
+    public void mark(String phase)
+    {
+        long now = System.nanoTime();
+        phases.add(phase);
+        durations.add(now - last);
+        last = now;
+    }
+
+    /**
+     * @return milliseconds from JVM start to the last mark
+     */
+    public double getMillisSinceJvmStart()
+    {
+        // read last, so the management classes don't count against a phase
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        return uptime - (System.nanoTime() - last) / 1e6;
+    }
+
+    public double getMillis()
+    {
+        return (last - start) / 1e6;
+    }
+
+    public void print()
+    {
+        double total = getMillis();
+        System.out.printf("%s: %.1f ms, ready %.1f ms after JVM start%n", name, total, getMillisSinceJvmStart());
+        System.out.printf("  %-24s %8.1f ms%n", "JVM before " + name, getMillisSinceJvmStart() - total);
+        for (int i = 0; i < phases.size(); i++)
+        {
+            System.out.printf("  %-24s %8.1f ms%n", phases.get(i), durations.get(i) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.team1389.instrumentation;
+
+import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.watch.Watchable;
+
+/**
+ * wraps a subsystem and records how long each of its updates takes. The
+ * histogram is published alongside the subsystem's own watchables
+ */
+public class TimedSubsystem extends Subsystem implements TelemetrySource
+{
+    private final Subsystem subsystem;
+    private final LatencyHistogram updateTime;
+
+    public TimedSubsystem(Subsystem subsystem, double budgetSeconds)
+    {
+        this.subsystem = subsystem;
+        this.updateTime = new LatencyHistogram("update time", budgetSeconds);
+    }
+
+    @Override
+    public void init()
+    {
+        subsystem.init();
+    }
+
+    @Override
+    public void update()
+    {
+        long start = System.nanoTime();
+        subsystem.update();
+        updateTime.recordSince(start);
+    }
+
+    public Subsystem getSubsystem()
+    {
+        return subsystem;
+    }
+
+    public LatencyHistogram getUpdateTime()
+    {
+        return updateTime;
+    }
+
+    /**
+     * passes through the wrapped subsystem's channels, if it has any
+     */
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        if (subsystem instanceof TelemetrySource)
+        {
+            ((TelemetrySource) subsystem).getTelemetryChannels(stem);
+        }
+        stem.put(TelemetryChannel.number(getName() + "/update ms", updateTime::getLastMillis).atRate(Rate.TEN_HZ));
+        return updateTime.getTelemetryChannels(getName(), stem);
+    }
+
+    @Override
+    public String getName()
+    {
+        return subsystem.getName();
+    }
+
+    @Override
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        return subsystem.getSubWatchables(stem).put(updateTime);
+    }
+}
@@ -0,0 +1,124 @@
+package com.team1389.macro;
+
+import com.team1389.input.InputSnapshot;
+
+/**
+ * layout of recorded driver macros. Only driver controls are recorded; sensors
+ * are read from the robot during playback. A little-endian header:
+ *
+ * <pre>
+ * int magic, short version, short digital controls, short range controls,
+ * short digital outputs, short range outputs, short unused, int loops
+ * </pre>
+ *
+ * then one record per loop, each an input section followed by an output
+ * section. A section is a varint count of the values that changed that loop,
+ * then for each one a varint gap from the previous changed index. Digital
+ * values toggle, so a change carries nothing more; range values carry a
+ * zigzag varint of their change, quantized to {@link #STEPS} steps across the
+ * range. A loop where nothing changed takes two bytes
+ */
+public final class MacroFormat
+{
+    public static final int MAGIC = 0x4f52434d;
+    public static final short VERSION = 2;
+    public static final int HEADER_BYTES = 20;
+    public static final String EXTENSION = ".macro";
+    /**
+     * finer than the 8 bits the driver station sends joystick axes with, so
+     * recording loses nothing a driver did
+     */
+    public static final int STEPS = 65535;
+    public static final double OUTPUT_MIN = -1;
+    public static final double OUTPUT_MAX = 1;
+    /**
+     * the most bytes a varint can take
+     */
+    public static final int MAX_VARINT_BYTES = 5;
+
+    private MacroFormat()
+    {
+    }
+
+    /**
+     * @return the snapshot index of each digital driver control, in recorded
+     *         order
+     */
+    static int[] digitalControls(InputSnapshot inputs)
+    {
+        int count = 0;
+        for (int i = 0; i < inputs.getDigitalCount(); i++)
+        {
+            count += inputs.isDigitalSensor(i) ? 0 : 1;
+        }
+        int[] controls = new int[count];
+        for (int i = 0, c = 0; i < inputs.getDigitalCount(); i++)
+        {
+            if (!inputs.isDigitalSensor(i))
+            {
+                controls[c++] = i;
+            }
+        }
+        return controls;
+    }
+
+    /**
+     * @return the snapshot index of each range driver control, in recorded
+     *         order
+     */
+    static int[] rangeControls(InputSnapshot inputs)
+    {
+        int count = 0;
+        for (int i = 0; i < inputs.getRangeCount(); i++)
+        {
+            count += inputs.isRangeSensor(i) ? 0 : 1;
+        }
+        int[] controls = new int[count];
+        for (int i = 0, c = 0; i < inputs.getRangeCount(); i++)
+        {
+            if (!inputs.isRangeSensor(i))
+            {
+                controls[c++] = i;
+            }
+        }
+        return controls;
+    }
+
+    /**
+     * @return the value as a step from min to max, clamped to the range
+     */
+    public static int quantize(double value, double min, double max)
+    {
+        double fraction = (value - min) / (max - min);
+        return (int) Math.round(Math.max(0, Math.min(1, fraction)) * STEPS);
+    }
+
+    public static double dequantize(int step, double min, double max)
+    {
+        return min + (max - min) * step / STEPS;
+    }
+
+    /**
+     * @return the position after the varint
+     */
+    public static int putVarint(byte[] buffer, int position, int value)
+    {
+        while ((value & ~0x7f) != 0)
+        {
+            buffer[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    public static int zigzag(int value)
+    {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int unzigzag(int value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,306 @@
+package com.team1389.macro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.team1389.input.InputSnapshot;
+import com.team1389.output.OutputBus;
+
+/**
+ * plays back a macro recorded by {@link MacroRecorder}, one recorded loop per
+ * main loop, in place of sampling the driver controls. Sensors are still read
+ * from the robot every loop, so the robot reacts to what is really there and
+ * not to what was there when the macro was recorded. Playback follows the recorded
+ * loop count, not the clock, so a loop that runs late delays the rest of the
+ * macro instead of skipping part of it. The outputs each loop sends are
+ * compared with the recording, to tell when the robot has stopped doing what
+ * it did when the macro was recorded. A recording that ends early or holds an
+ * index it wasn't recorded with stops playback at that loop
+ */
+public class MacroPlayer
+{
+    private final String name;
+    private final ByteBuffer buffer;
+    private final int loops;
+
+    private InputSnapshot inputs;
+    private OutputBus outputs;
+    // snapshot index of each recorded control
+    private int[] digitalIndices;
+    private int[] rangeIndices;
+    private boolean[] digitalInputs;
+    private int[] rangeInputs;
+    private boolean[] digitalOutputs;
+    private int[] rangeOutputs;
+    private int position;
+    private int loop;
+    private boolean outputsPending;
+    private int divergedLoops;
+    // set once the recording runs out or doesn't decode
+    private boolean broken;
+
+    /**
+     * @throws IllegalArgumentException
+     *                                      if the buffer isn't a macro
+     */
+    public MacroPlayer(String name, ByteBuffer buffer)
+    {
+        this.name = name;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < MacroFormat.HEADER_BYTES || buffer.getInt(0) != MacroFormat.MAGIC)
+        {
+            throw new IllegalArgumentException(name + " is not a recorded macro");
+        }
+        if (buffer.getShort(4) != MacroFormat.VERSION)
+        {
+            throw new IllegalArgumentException(name + " was recorded in format version " + buffer.getShort(4));
+        }
+        loops = buffer.getInt(16);
+    }
+
+    public static MacroPlayer map(Path file) throws IOException
+    {
+        String name = file.getFileName().toString().replace(MacroFormat.EXTENSION, "");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.load();
+            return new MacroPlayer(name, mapped);
+        }
+    }
+
+    /**
+     * rewinds to the first loop and sets the driver controls to their state
+     * before it
+     * 
+     * @throws IllegalArgumentException
+     *                                      if the inputs or outputs aren't the
+     *                                      ones the macro was recorded with
+     */
+    public void start(InputSnapshot inputs, OutputBus outputs)
+    {
+        int[] digitalIndices = MacroFormat.digitalControls(inputs);
+        int[] rangeIndices = MacroFormat.rangeControls(inputs);
+        if (buffer.getShort(6) != digitalIndices.length || buffer.getShort(8) != rangeIndices.length
+                || buffer.getShort(10) != outputs.getDigitalCount() || buffer.getShort(12) != outputs.getRangeCount())
+        {
+            throw new IllegalArgumentException(name + " was recorded with different inputs or outputs");
+        }
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.digitalIndices = digitalIndices;
+        this.rangeIndices = rangeIndices;
+        digitalInputs = new boolean[digitalIndices.length];
+        rangeInputs = new int[rangeIndices.length];
+        digitalOutputs = new boolean[outputs.getDigitalCount()];
+        rangeOutputs = new int[outputs.getRangeCount()];
+        position = MacroFormat.HEADER_BYTES;
+        loop = 0;
+        outputsPending = false;
+        divergedLoops = 0;
+        broken = false;
+        for (int i = 0; i < digitalInputs.length; i++)
+        {
+            inputs.setDigital(digitalIndices[i], false);
+        }
+        for (int i = 0; i < rangeInputs.length; i++)
+        {
+            setRange(i);
+        }
+    }
+
+    /**
+     * sets the driver controls to the next recorded loop's. Call in place of
+     * sampling them, along with {@link InputSnapshot#sampleSensors()}
+     * 
+     * @return false once the macro has finished, leaving the controls alone
+     */
+    public boolean playInputs()
+    {
+        if (outputsPending)
+        {
+            readOutputs();
+        }
+        if (isFinished())
+        {
+            return false;
+        }
+        // controls set before a bad record is found are overwritten when the
+        // caller samples them instead
+        int count = digitalInputs.length + rangeInputs.length;
+        int changes = readVarint();
+        int index = -1;
+        for (int c = 0; c < changes && !broken; c++)
+        {
+            index = nextIndex(index, count);
+            if (broken)
+            {
+                break;
+            }
+            if (index < digitalInputs.length)
+            {
+                digitalInputs[index] = !digitalInputs[index];
+                inputs.setDigital(digitalIndices[index], digitalInputs[index]);
+            }
+            else
+            {
+                int i = index - digitalInputs.length;
+                rangeInputs[i] += MacroFormat.unzigzag(readVarint());
+                setRange(i);
+            }
+        }
+        if (broken)
+        {
+            return false;
+        }
+        outputsPending = true;
+        loop++;
+        return true;
+    }
+
+    private void setRange(int control)
+    {
+        int input = rangeIndices[control];
+        inputs.setRange(input,
+                MacroFormat.dequantize(rangeInputs[control], inputs.getRangeMin(input), inputs.getRangeMax(input)));
+    }
+
+    /**
+     * compares the outputs sent this loop with the recording. Call right
+     * after the outputs are flushed
+     */
+    public void checkOutputs()
+    {
+        if (!outputsPending)
+        {
+            return;
+        }
+        readOutputs();
+        if (broken)
+        {
+            return;
+        }
+        for (int i = 0; i < digitalOutputs.length; i++)
+        {
+            if (outputs.getDigitalSent(i) != digitalOutputs[i])
+            {
+                divergedLoops++;
+                return;
+            }
+        }
+        for (int i = 0; i < rangeOutputs.length; i++)
+        {
+            int sent = MacroFormat.quantize(outputs.getRangeSent(i), MacroFormat.OUTPUT_MIN, MacroFormat.OUTPUT_MAX);
+            if (sent != rangeOutputs[i])
+            {
+                divergedLoops++;
+                return;
+            }
+        }
+    }
+
+    private void readOutputs()
+    {
+        outputsPending = false;
+        int count = digitalOutputs.length + rangeOutputs.length;
+        int changes = readVarint();
+        int index = -1;
+        for (int c = 0; c < changes && !broken; c++)
+        {
+            index = nextIndex(index, count);
+            if (broken)
+            {
+                break;
+            }
+            if (index < digitalOutputs.length)
+            {
+                digitalOutputs[index] = !digitalOutputs[index];
+            }
+            else
+            {
+                rangeOutputs[index - digitalOutputs.length] += MacroFormat.unzigzag(readVarint());
+            }
+        }
+    }
+
+    /**
+     * reads the gap to the next changed index, marking the recording broken
+     * if the index is past the values it was recorded with
+     */
+    private int nextIndex(int index, int count)
+    {
+        int gap = readVarint();
+        if (broken || gap < 0 || gap >= count - index - 1)
+        {
+            broken = true;
+            return index;
+        }
+        return index + gap + 1;
+    }
+
+    /**
+     * @return the next varint, or 0 after marking the recording broken if it
+     *         runs past the end of the file
+     */
+    private int readVarint()
+    {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MacroFormat.MAX_VARINT_BYTES; shift += 7)
+        {
+            if (position >= buffer.limit())
+            {
+                break;
+            }
+            byte b = buffer.get(position++);
+            value |= (b & 0x7f) << shift;
+            if (b >= 0)
+            {
+                return value;
+            }
+        }
+        broken = true;
+        return 0;
+    }
+
+    public boolean isFinished()
+    {
+        return broken || loop >= loops;
+    }
+
+    /**
+     * @return true if playback stopped because the recording ended early or
+     *         didn't decode, e.g. after losing power while it was saved
+     */
+    public boolean isBroken()
+    {
+        return broken;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getLoops()
+    {
+        return loops;
+    }
+
+    public int getLoop()
+    {
+        return loop;
+    }
+
+    /**
+     * @return loops whose outputs differed from the recording
+     */
+    public int getDivergedLoops()
+    {
+        return divergedLoops;
+    }
+}
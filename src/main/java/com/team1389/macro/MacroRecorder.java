@@ -0,0 +1,261 @@
+package com.team1389.macro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.team1389.input.InputSnapshot;
+import com.team1389.output.OutputBus;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+
+/**
+ * records every driver control in an {@link InputSnapshot} and every output
+ * sent through an {@link OutputBus}, loop by loop, in the
+ * {@link MacroFormat delta-encoded format}, so a driver's run can be played
+ * back by {@link MacroPlayer}. Records into a buffer allocated up front and
+ * only touches the disk in {@link #save(Path)}, so it's cheap enough to leave
+ * on. Recording stops, keeping what it has, when the buffer fills.
+ * <p>
+ * Sensors aren't recorded, as playback reads them from the robot. Range
+ * controls are snapped to the recorded resolution as they are recorded,
+ * so the loop being recorded sees exactly what playback will
+ */
+public class MacroRecorder implements TelemetrySource
+{
+    /**
+     * a whole match of a driver moving every axis every loop
+     */
+    public static final int DEFAULT_BYTES = 1 << 20;
+
+    private final byte[] buffer;
+    private int position;
+    private int loops;
+    private boolean full;
+    private boolean loopOpen;
+
+    private InputSnapshot inputs;
+    private OutputBus outputs;
+    // snapshot index of each recorded control
+    private int[] digitalIndices;
+    private int[] rangeIndices;
+    private boolean[] digitalInputs;
+    private int[] rangeInputs;
+    private int[] rangeInputSteps;
+    private boolean[] digitalOutputs;
+    private int[] rangeOutputs;
+
+    public MacroRecorder(int bytes)
+    {
+        buffer = new byte[bytes];
+    }
+
+    /**
+     * drops anything recorded and starts over. Call after every input and
+     * output has been registered
+     */
+    public void start(InputSnapshot inputs, OutputBus outputs)
+    {
+        this.inputs = inputs;
+        this.outputs = outputs;
+        digitalIndices = MacroFormat.digitalControls(inputs);
+        rangeIndices = MacroFormat.rangeControls(inputs);
+        digitalInputs = new boolean[digitalIndices.length];
+        rangeInputs = new int[rangeIndices.length];
+        rangeInputSteps = new int[rangeIndices.length];
+        digitalOutputs = new boolean[outputs.getDigitalCount()];
+        rangeOutputs = new int[outputs.getRangeCount()];
+        position = MacroFormat.HEADER_BYTES;
+        loops = 0;
+        full = false;
+        loopOpen = false;
+    }
+
+    /**
+     * records this loop's inputs. Call right after the inputs are sampled,
+     * before any subsystem updates
+     */
+    public void recordInputs()
+    {
+        int values = digitalInputs.length + rangeInputs.length + digitalOutputs.length + rangeOutputs.length;
+        int worstLoop = 2 * MacroFormat.MAX_VARINT_BYTES * (values + 1);
+        if (full || buffer.length - position < worstLoop)
+        {
+            full = true;
+            return;
+        }
+        loopOpen = true;
+
+        int changes = 0;
+        for (int i = 0; i < digitalInputs.length; i++)
+        {
+            if (inputs.getDigital(digitalIndices[i]) != digitalInputs[i])
+            {
+                changes++;
+            }
+        }
+        for (int i = 0; i < rangeInputs.length; i++)
+        {
+            int input = rangeIndices[i];
+            double min = inputs.getRangeMin(input);
+            double max = inputs.getRangeMax(input);
+            int step = MacroFormat.quantize(inputs.getRange(input), min, max);
+            inputs.setRange(input, MacroFormat.dequantize(step, min, max));
+            rangeInputSteps[i] = step;
+            if (step != rangeInputs[i])
+            {
+                changes++;
+            }
+        }
+        position = MacroFormat.putVarint(buffer, position, changes);
+
+        int last = -1;
+        for (int i = 0; i < digitalInputs.length; i++)
+        {
+            boolean value = inputs.getDigital(digitalIndices[i]);
+            if (value != digitalInputs[i])
+            {
+                position = MacroFormat.putVarint(buffer, position, i - last - 1);
+                last = i;
+                digitalInputs[i] = value;
+            }
+        }
+        for (int i = 0; i < rangeInputs.length; i++)
+        {
+            int step = rangeInputSteps[i];
+            if (step != rangeInputs[i])
+            {
+                int index = digitalInputs.length + i;
+                position = MacroFormat.putVarint(buffer, position, index - last - 1);
+                position = MacroFormat.putVarint(buffer, position, MacroFormat.zigzag(step - rangeInputs[i]));
+                last = index;
+                rangeInputs[i] = step;
+            }
+        }
+    }
+
+    /**
+     * records the outputs this loop sent, and ends the loop. Call right after
+     * the outputs are flushed
+     */
+    public void recordOutputs()
+    {
+        if (!loopOpen)
+        {
+            return;
+        }
+        loopOpen = false;
+
+        int changes = 0;
+        for (int i = 0; i < digitalOutputs.length; i++)
+        {
+            if (outputs.getDigitalSent(i) != digitalOutputs[i])
+            {
+                changes++;
+            }
+        }
+        for (int i = 0; i < rangeOutputs.length; i++)
+        {
+            if (outputStep(i) != rangeOutputs[i])
+            {
+                changes++;
+            }
+        }
+        position = MacroFormat.putVarint(buffer, position, changes);
+
+        int last = -1;
+        for (int i = 0; i < digitalOutputs.length; i++)
+        {
+            boolean value = outputs.getDigitalSent(i);
+            if (value != digitalOutputs[i])
+            {
+                position = MacroFormat.putVarint(buffer, position, i - last - 1);
+                last = i;
+                digitalOutputs[i] = value;
+            }
+        }
+        for (int i = 0; i < rangeOutputs.length; i++)
+        {
+            int step = outputStep(i);
+            if (step != rangeOutputs[i])
+            {
+                int index = digitalOutputs.length + i;
+                position = MacroFormat.putVarint(buffer, position, index - last - 1);
+                position = MacroFormat.putVarint(buffer, position, MacroFormat.zigzag(step - rangeOutputs[i]));
+                last = index;
+                rangeOutputs[i] = step;
+            }
+        }
+        loops++;
+    }
+
+    private int outputStep(int index)
+    {
+        return MacroFormat.quantize(outputs.getRangeSent(index), MacroFormat.OUTPUT_MIN, MacroFormat.OUTPUT_MAX);
+    }
+
+    /**
+     * writes everything recorded since {@link #start} to a file, replacing
+     * it. Not for the main loop
+     */
+    public void save(Path file) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.wrap(buffer, 0, MacroFormat.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MacroFormat.MAGIC);
+        header.putShort(MacroFormat.VERSION);
+        header.putShort((short) digitalInputs.length);
+        header.putShort((short) rangeInputs.length);
+        header.putShort((short) digitalOutputs.length);
+        header.putShort((short) rangeOutputs.length);
+        header.putShort((short) 0);
+        header.putInt(loops);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        // written in full beside the old macro, then moved over it, so losing
+        // power part way through never leaves a macro whose header promises
+        // loops it doesn't have
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer recorded = ByteBuffer.wrap(buffer, 0, position);
+            while (recorded.hasRemaining())
+            {
+                channel.write(recorded);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getLoops()
+    {
+        return loops;
+    }
+
+    public int getBytes()
+    {
+        return position;
+    }
+
+    /**
+     * @return true if recording stopped because the buffer filled
+     */
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.number("macro/bytes", this::getBytes).atRate(Rate.ONE_HZ));
+    }
+}
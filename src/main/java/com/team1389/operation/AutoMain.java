@@ -0,0 +1,150 @@
+package com.team1389.operation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import com.team1389.autonomous.AutoLibrary;
+import com.team1389.autonomous.AutoRoutine;
+import com.team1389.autonomous.AutoRunner;
+import com.team1389.macro.MacroFormat;
+import com.team1389.macro.MacroPlayer;
+import com.team1389.robot.RobotSoftware;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Filesystem;
+
+public class AutoMain
+{
+	static final String ROUTINE_DIRECTORY = "auto";
+	static final String DEFAULT_ROUTINE = "none";
+
+	RobotSoftware robot;
+	TeleopMain teleop;
+	AutoLibrary library;
+	AutoRunner runner;
+	Map<String, MacroPlayer> macros = new TreeMap<>();
+	boolean playingMacro;
+	NetworkTable table;
+
+	/**
+	 * maps every compiled routine in the deploy directory, so nothing is read
+	 * or parsed once the match starts
+	 */
+	public AutoMain(RobotSoftware robot, TeleopMain teleop)
+	{
+		this(robot, teleop, Filesystem.getDeployDirectory().toPath().resolve(ROUTINE_DIRECTORY));
+	}
+
+	public AutoMain(RobotSoftware robot, TeleopMain teleop, Path routines)
+	{
+		this.robot = robot;
+		this.teleop = teleop;
+		library = AutoLibrary.load(routines);
+		table = NetworkTableInstance.getDefault().getTable("auto");
+		publishNames();
+		table.getEntry("routine").setString(DEFAULT_ROUTINE);
+		// build the runner here from the arm and shooter once RobotHardware
+		// declares them; until then autonomous does nothing
+	}
+
+	/**
+	 * maps every macro recorded so far, so one recorded in the last teleop
+	 * period can be picked for the next match. Call while disabled
+	 */
+	public void loadMacros(Path directory)
+	{
+		macros.clear();
+		if (Files.isDirectory(directory))
+		{
+			try (Stream<Path> files = Files.list(directory))
+			{
+				files.filter(f -> f.toString().endsWith(MacroFormat.EXTENSION)).forEach(this::addMacro);
+			}
+			catch (IOException e)
+			{
+				System.out.println("couldn't list macros: " + e);
+			}
+		}
+		publishNames();
+	}
+
+	private void addMacro(Path file)
+	{
+		try
+		{
+			MacroPlayer macro = MacroPlayer.map(file);
+			macros.put(macro.getName(), macro);
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			System.out.println("skipping macro " + file.getFileName() + ": " + e.getMessage());
+		}
+	}
+
+	private void publishNames()
+	{
+		List<String> names = new ArrayList<>(Arrays.asList(library.getNames()));
+		names.addAll(macros.keySet());
+		table.getEntry("routines").setString(String.join(",", names));
+	}
+
+	/**
+	 * starts the routine or macro picked on the dashboard; routines win if
+	 * both have the same name
+	 */
+	public void init()
+	{
+		String name = table.getEntry("routine").getString(DEFAULT_ROUTINE);
+		AutoRoutine routine = library.get(name);
+		MacroPlayer macro = macros.get(name);
+		playingMacro = false;
+		if (routine == null && macro != null)
+		{
+			teleop.init();
+			try
+			{
+				teleop.play(macro);
+				playingMacro = true;
+			}
+			catch (IllegalArgumentException e)
+			{
+				System.out.println("can't play macro: " + e.getMessage());
+			}
+			return;
+		}
+		if (routine == null && !name.equals(DEFAULT_ROUTINE))
+		{
+			System.out.println("no autonomous routine " + name);
+		}
+		if (runner == null)
+		{
+			return;
+		}
+		runner.init();
+		runner.start(routine);
+	}
+
+	public void periodic()
+	{
+		if (playingMacro)
+		{
+			teleop.periodic();
+			return;
+		}
+		if (runner == null)
+		{
+			return;
+		}
+		robot.inputs.sample();
+		runner.update();
+		robot.outputs.flush();
+	}
+}
@@ -1,34 +1,260 @@
 package com.team1389.operation;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.team1389.commands.Clock;
 import com.team1389.hardware.controls.ControlBoard;
+import com.team1389.instrumentation.LoopTimings;
+import com.team1389.instrumentation.LoopWatchdog;
+import com.team1389.instrumentation.LoopWatchdog.Level;
+import com.team1389.macro.MacroFormat;
+import com.team1389.macro.MacroPlayer;
+import com.team1389.macro.MacroRecorder;
+import com.team1389.robot.RobotMap;
 import com.team1389.robot.RobotSoftware;
-import com.team1389.system.SystemManager;
-import com.team1389.watch.Watcher;
+import com.team1389.scheduling.ParallelSystemManager;
+import com.team1389.system.Subsystem;
+import com.team1389.systems.Vision;
+import com.team1389.telemetry.DashboardPublisher;
+import com.team1389.telemetry.StateHistory;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetryOffload;
+import com.team1389.telemetry.TelemetryRecorder;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.vision.CameraFrameSource;
+import com.team1389.vision.TargetPipeline;
+import com.team1389.vision.TargetTracker;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
 
 public class TeleopMain
 {
-	SystemManager manager;
+	static final Path TELEMETRY_DIRECTORY = Paths.get("/home/lvuser/telemetry");
+	public static final Path MACRO_DIRECTORY = Paths.get("/home/lvuser/macros");
+	static final String DEFAULT_MACRO = "last";
+	// a bit over a second of main loops
+	static final int TELEMETRY_SNAPSHOTS = 64;
+	// a bit over a second of state, far more than any camera lags by
+	static final int HISTORY_SNAPSHOTS = 64;
+	// loops between telemetry samples while the watchdog is shedding it
+	static final int SLOW_TELEMETRY_LOOPS = 5;
+
+	Vision vision;
+	Subsystem[] subsystems;
+	ParallelSystemManager manager;
 	ControlBoard controls;
 	RobotSoftware robot;
+	LoopTimings timings;
+	TelemetryRecorder recorder;
+	DashboardPublisher dashboard;
+	TelemetryOffload offload;
+	StateHistory history;
+	LoopWatchdog watchdog;
+	// every teleop period is recorded so a good run can be played back in
+	// sandstorm
+	MacroRecorder macroRecorder;
+	MacroPlayer macro;
+	long loops;
 
-	public TeleopMain(RobotSoftware robot)
+	public TeleopMain(RobotSoftware robot, LoopTimings timings)
 	{
 		this.robot = robot;
+		this.timings = timings;
+		// each subsystem is wrapped so its update time shows up next to its
+		// telemetry
+		vision = new Vision(new TargetTracker(new CameraFrameSource(RobotMap.usb_VISION_CAMERA),
+				new TargetPipeline(), Clock.SYSTEM));
+		subsystems = timings.timed(vision);
+		// subsystems that share no outputs update on both cores. Built once,
+		// as its worker threads live as long as the robot program
+		manager = new ParallelSystemManager(subsystems);
+		// vision only helps the driver line up, so it is the first thing
+		// dropped when loops run long; its thread keeps tracking meanwhile
+		manager.setLowPriority(vision);
+		macroRecorder = new MacroRecorder(MacroRecorder.DEFAULT_BYTES);
+		NetworkTableInstance.getDefault().getTable("macro").getEntry("record as").setString(DEFAULT_MACRO);
 	}
 
 	public void init()
 	{
 		controls = ControlBoard.getInstance();
-		manager = new SystemManager();
+		// re-inits the subsystems; the workers started on the first call are
+		// reused
 		manager.init();
-		Watcher watcher = new Watcher();
-		watcher.watch(manager.getSystemWatchables());
+		watchdog = new LoopWatchdog(LoopTimings.LOOP_BUDGET, Clock.SYSTEM);
+		loops = 0;
+		AddList<TelemetryChannel> channels = getTelemetryChannels();
+		robot.outputs.getTelemetryChannels(channels);
+		watchdog.getTelemetryChannels(channels);
+		macroRecorder.getTelemetryChannels(channels);
+		channels.put(TelemetryChannel.number("telemetry/dropped", () -> offload.getDropped()).atRate(Rate.ONE_HZ));
+
+		// a new log for every teleop period
+		boolean stopped = stopTelemetry();
+		if (recorder != null && stopped)
+		{
+			recorder.close();
+		}
+
+		// the main loop only copies values into a ring; the log and the
+		// dashboard are written from the telemetry thread
+		offload = new TelemetryOffload(channels, TELEMETRY_SNAPSHOTS, Clock.SYSTEM);
+		recorder = TelemetryRecorder.open(TELEMETRY_DIRECTORY, offload.getChannels(), offload.getClock());
+		if (recorder != null)
+		{
+			offload.addConsumer(recorder::record);
+		}
+		// the dashboard gets the same channels as the log, but only the
+		// ones that changed and only as often as their rate asks for
+		dashboard = new DashboardPublisher(NetworkTableInstance.getDefault().getTable("telemetry"),
+				offload.getChannels());
+		offload.addConsumer(dashboard::publish);
+		offload.start();
+		// late measurements are matched against this, so it is never shed
+		history = new StateHistory(channels, HISTORY_SNAPSHOTS, Clock.SYSTEM);
+		macro = null;
+		macroRecorder.start(robot.inputs, robot.outputs);
 	}
 
-	public void periodic()
+	/**
+	 * drives the subsystems from a recorded macro instead of the controls
+	 * until it runs out. Call after {@link #init()}
+	 */
+	public void play(MacroPlayer macro)
 	{
+		macro.start(robot.inputs, robot.outputs);
+		this.macro = macro;
+	}
+
+	/**
+	 * @return true if the telemetry thread isn't running, so the recorder is
+	 *         safe to touch
+	 */
+	private boolean stopTelemetry()
+	{
+		if (offload == null || offload.stop())
+		{
+			return true;
+		}
+		System.out.println("telemetry thread didn't stop, leaving its log open");
+		return false;
+	}
 
+	private AddList<TelemetryChannel> getTelemetryChannels()
+	{
+		AddList<TelemetryChannel> channels = timings.getTelemetryChannels(new AddList<>());
+		for (Subsystem subsystem : subsystems)
+		{
+			if (subsystem instanceof TelemetrySource)
+			{
+				((TelemetrySource) subsystem).getTelemetryChannels(channels);
+			}
+		}
+		return channels;
+	}
+
+	public void periodic()
+	{
+		long start = System.nanoTime();
+		// arm and climber control always run; only deferrable work is shed
+		manager.setShedLowPriority(watchdog.isShedding(Level.NO_LOW_PRIORITY));
+		// a macro replaces only the driver controls; sensors are always read
+		boolean playing = macro != null && macro.playInputs();
+		if (playing)
+		{
+			robot.inputs.sampleSensors();
+		}
+		else
+		{
+			robot.inputs.sample();
+		}
+		if (macro == null)
+		{
+			macroRecorder.recordInputs();
+		}
 		manager.update();
+		robot.outputs.flush();
+		if (playing)
+		{
+			macro.checkOutputs();
+		}
+		else if (macro == null)
+		{
+			macroRecorder.recordOutputs();
+		}
+		history.record();
+		timings.systemUpdate.recordSince(start);
+		if (!watchdog.isShedding(Level.SLOW_TELEMETRY)
+				|| (!watchdog.isShedding(Level.NO_TELEMETRY) && loops % SLOW_TELEMETRY_LOOPS == 0))
+		{
+			offload.sample();
+		}
+		long nanos = System.nanoTime() - start;
+		if (loops++ == 0)
+		{
+			System.out.printf("first teleop loop: %.3f ms%n", nanos / 1e6);
+		}
+		watchdog.record(nanos);
+	}
 
+	/**
+	 * @return every telemetry channel over the last second or so, for
+	 *         matching measurements that arrive late to the state of the
+	 *         robot when they were taken
+	 */
+	public StateHistory getHistory()
+	{
+		return history;
+	}
+
+	/**
+	 * writes buffered telemetry and the recorded macro to disk; call when the
+	 * robot is disabled
+	 */
+	public void disabled()
+	{
+		if (watchdog != null)
+		{
+			watchdog.printEvents();
+		}
+		saveMacro();
+		if (stopTelemetry() && recorder != null)
+		{
+			recorder.sync();
+		}
+	}
+
+	private void saveMacro()
+	{
+		if (macro != null)
+		{
+			System.out.printf("macro %s: played %d of %d loops, %d differed from the recording%s%n",
+					macro.getName(), macro.getLoop(), macro.getLoops(), macro.getDivergedLoops(),
+					macro.isBroken() ? "; the recording broke off early" : "");
+			macro = null;
+			return;
+		}
+		if (macroRecorder.getLoops() == 0)
+		{
+			return;
+		}
+		String name = NetworkTableInstance.getDefault().getTable("macro").getEntry("record as")
+				.getString(DEFAULT_MACRO);
+		try
+		{
+			macroRecorder.save(MACRO_DIRECTORY.resolve(name + MacroFormat.EXTENSION));
+			System.out.printf("saved %d loops as macro %s%s%n", macroRecorder.getLoops(), name,
+					macroRecorder.isFull() ? ", cut short when the buffer filled" : "");
+		}
+		catch (IOException e)
+		{
+			System.out.println("couldn't save macro " + name + ": " + e);
+		}
+		// start over so the next disable doesn't save the same loops again
+		macroRecorder.start(robot.inputs, robot.outputs);
 	}
 }
@@ -0,0 +1,251 @@
+package com.team1389.output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.team1389.hardware.outputs.software.DigitalOut;
+import com.team1389.hardware.outputs.software.PercentOut;
+import com.team1389.hardware.outputs.software.RangeOut;
+import com.team1389.hardware.value_types.Percent;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+
+/**
+ * buffers writes to outputs for the length of a loop. Subsystems are handed
+ * the buffered outputs from {@link #buffer(RangeOut)} and
+ * {@link #buffer(DigitalOut)}, and set them as often as they like; only the
+ * last value set in a loop counts. {@link #flush()} at the end of the loop
+ * sends each device its value, and only if it differs from what the device
+ * was last sent.
+ * <p>
+ * Only buffer outputs written from the main loop. The arm control thread
+ * writes its motor directly
+ */
+public class OutputBus implements TelemetrySource
+{
+    private final List<RangeSlot> ranges = new ArrayList<>();
+    private final List<DigitalSlot> digitals = new ArrayList<>();
+    private final int refreshLoops;
+    private long issued;
+    private long refreshed;
+
+    /**
+     * @param refreshLoops
+     *                         resend a value that hasn't changed after this
+     *                         many loops, for controllers that disable
+     *                         themselves when not written to; 0 to never
+     *                         resend
+     */
+    public OutputBus(int refreshLoops)
+    {
+        this.refreshLoops = refreshLoops;
+    }
+
+    public OutputBus()
+    {
+        this(0);
+    }
+
+    public PercentOut buffer(RangeOut<Percent> device)
+    {
+        RangeSlot slot = new RangeSlot(device);
+        ranges.add(slot);
+        return new PercentOut(slot::set);
+    }
+
+    public DigitalOut buffer(DigitalOut device)
+    {
+        DigitalSlot slot = new DigitalSlot(device);
+        digitals.add(slot);
+        return new DigitalOut(slot::set);
+    }
+
+    /**
+     * sends every changed value to its device. Call once at the end of every
+     * loop
+     */
+    public void flush()
+    {
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            ranges.get(i).flush();
+        }
+        for (int i = 0; i < digitals.size(); i++)
+        {
+            digitals.get(i).flush();
+        }
+    }
+
+    public int getRangeCount()
+    {
+        return ranges.size();
+    }
+
+    /**
+     * @return the value last sent to a range output, in the order they were
+     *         buffered
+     */
+    public double getRangeSent(int index)
+    {
+        return ranges.get(index).sent;
+    }
+
+    public int getDigitalCount()
+    {
+        return digitals.size();
+    }
+
+    /**
+     * @return the value last sent to a digital output, in the order they were
+     *         buffered
+     */
+    public boolean getDigitalSent(int index)
+    {
+        return digitals.get(index).sent;
+    }
+
+    /**
+     * @return how many times outputs were set
+     */
+    public long getRequested()
+    {
+        long requested = 0;
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            requested += ranges.get(i).requested;
+        }
+        for (int i = 0; i < digitals.size(); i++)
+        {
+            requested += digitals.get(i).requested;
+        }
+        return requested;
+    }
+
+    /**
+     * @return how many changed values went to devices
+     */
+    public long getIssued()
+    {
+        return issued;
+    }
+
+    /**
+     * @return how many unchanged values were resent to keep devices alive
+     */
+    public long getRefreshed()
+    {
+        return refreshed;
+    }
+
+    /**
+     * @return sets that never reached a device, because they were overwritten
+     *         in the same loop or didn't change anything
+     */
+    public long getSuppressed()
+    {
+        return getRequested() - issued;
+    }
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.number("outputs/issued", this::getIssued).atRate(Rate.ONE_HZ),
+                TelemetryChannel.number("outputs/suppressed", this::getSuppressed).atRate(Rate.ONE_HZ));
+    }
+
+    private class RangeSlot
+    {
+        private final RangeOut<Percent> device;
+        private double value;
+        private double sent;
+        private boolean pending;
+        private boolean sentOnce;
+        private int unsentLoops;
+        // counted per slot since subsystems on different threads may set
+        // their own outputs at the same time
+        private long requested;
+
+        private RangeSlot(RangeOut<Percent> device)
+        {
+            this.device = device;
+        }
+
+        private void set(double value)
+        {
+            this.value = value;
+            pending = true;
+            requested++;
+        }
+
+        private void flush()
+        {
+            boolean changed = pending && (!sentOnce || value != sent);
+            boolean refresh = sentOnce && refreshLoops > 0 && ++unsentLoops >= refreshLoops;
+            pending = false;
+            if (!changed && !refresh)
+            {
+                return;
+            }
+            device.set(value);
+            sent = value;
+            sentOnce = true;
+            unsentLoops = 0;
+            if (changed)
+            {
+                issued++;
+            }
+            else
+            {
+                refreshed++;
+            }
+        }
+    }
+
+    private class DigitalSlot
+    {
+        private final DigitalOut device;
+        private boolean value;
+        private boolean sent;
+        private boolean pending;
+        private boolean sentOnce;
+        private int unsentLoops;
+        private long requested;
+
+        private DigitalSlot(DigitalOut device)
+        {
+            this.device = device;
+        }
+
+        private void set(boolean value)
+        {
+            this.value = value;
+            pending = true;
+            requested++;
+        }
+
+        private void flush()
+        {
+            boolean changed = pending && (!sentOnce || value != sent);
+            boolean refresh = sentOnce && refreshLoops > 0 && ++unsentLoops >= refreshLoops;
+            pending = false;
+            if (!changed && !refresh)
+            {
+                return;
+            }
+            device.set(value);
+            sent = value;
+            sentOnce = true;
+            unsentLoops = 0;
+            if (changed)
+            {
+                issued++;
+            }
+            else
+            {
+                refreshed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.team1389.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * runs independent device configuration at the same time. Configuration that
+ * blocks on the device, like CAN parameter writes, spends most of its time
+ * waiting, so devices on different buses or IDs can be configured together.
+ * <p>
+ * Tasks must not touch the {@link com.team1389.hardware.registry.Registry};
+ * claim ports serially first and add only the slow configuration here
+ */
+public class HardwareBringUp
+{
+	private static final int MAX_THREADS = 4;
+
+	private final List<String> names = new ArrayList<>();
+	private final List<Runnable> tasks = new ArrayList<>();
+	private long[] durations = new long[0];
+
+	/**
+	 * @param name
+	 *            name to report the task's time under
+	 * @param configure
+	 *            configuration that shares no device with any other task
+	 */
+	public void add(String name, Runnable configure)
+	{
+		names.add(name);
+		tasks.add(configure);
+	}
+
+	/**
+	 * runs every task, returning once all are done
+	 *
+	 * @throws RuntimeException
+	 *             if any task failed, after the rest have finished
+	 */
+	public void run()
+	{
+		durations = new long[tasks.size()];
+		if (tasks.isEmpty())
+		{
+			return;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(tasks.size(), MAX_THREADS));
+		List<Future<?>> running = new ArrayList<>();
+		for (int i = 0; i < tasks.size(); i++)
+		{
+			int index = i;
+			running.add(pool.submit(() ->
+			{
+				long start = System.nanoTime();
+				tasks.get(index).run();
+				durations[index] = System.nanoTime() - start;
+			}));
+		}
+		pool.shutdown();
+
+		RuntimeException failure = null;
+		for (int i = 0; i < running.size(); i++)
+		{
+			try
+			{
+				running.get(i).get();
+			}
+			catch (ExecutionException e)
+			{
+				failure = new RuntimeException("configuring " + names.get(i) + " failed", e.getCause());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				failure = new RuntimeException("interrupted while configuring hardware", e);
+			}
+		}
+		if (failure != null)
+		{
+			throw failure;
+		}
+	}
+
+	public void print()
+	{
+		for (int i = 0; i < names.size(); i++)
+		{
+			System.out.printf("  %-24s %8.1f ms (in parallel)%n", names.get(i), durations[i] / 1e6);
+		}
+	}
+}
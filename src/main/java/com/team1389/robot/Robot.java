@@ -1,6 +1,10 @@
 package com.team1389.robot;
 
+import com.team1389.instrumentation.LoopTimings;
+import com.team1389.instrumentation.StartupTimer;
+import com.team1389.operation.AutoMain;
 import com.team1389.operation.TeleopMain;
+import com.team1389.simulation.JitWarmUp;
 import edu.wpi.first.wpilibj.TimedRobot;
 
 /**
@@ -14,6 +18,10 @@ public class Robot extends TimedRobot
 {
 	RobotSoftware robot;
 	TeleopMain teleOperator;
+	AutoMain autonomous;
+	LoopTimings timings = new LoopTimings();
+	// compiles the teleop hot paths on stand-ins while disabled
+	JitWarmUp warmUp = new JitWarmUp();
 
 	/**
 	 * This function is run when the robot is first started up and should be
@@ -22,26 +30,35 @@ public class Robot extends TimedRobot
 	@Override
 	public void robotInit()
 	{
-
+		StartupTimer startup = new StartupTimer("robotInit");
 		robot = RobotSoftware.getInstance();
-		teleOperator = new TeleopMain(robot);
+		startup.mark("hardware");
+		teleOperator = new TeleopMain(robot, timings);
+		startup.mark("teleop");
+		autonomous = new AutoMain(robot, teleOperator);
+		startup.mark("autonomous");
+		startup.print();
+		robot.getBringUp().print();
 	}
 
 	@Override
 	public void autonomousInit()
 	{
-
+		autonomous.init();
 	}
 
 	@Override
 	public void autonomousPeriodic()
 	{
+		long start = System.nanoTime();
+		autonomous.periodic();
+		timings.autonomousPeriodic.recordSince(start);
 	}
 
 	@Override
 	public void teleopInit()
 	{
-
+		teleOperator.init();
 	}
 
 	/**
@@ -50,18 +67,27 @@ public class Robot extends TimedRobot
 	@Override
 	public void teleopPeriodic()
 	{
+		long start = System.nanoTime();
+		teleOperator.periodic();
+		timings.teleopPeriodic.recordSince(start);
 	}
 
 	@Override
 
 	public void disabledInit()
 	{
+		teleOperator.disabled();
+		// picks up the macro just saved; the robot starts disabled, so this
+		// also loads them at startup
+		autonomous.loadMacros(TeleopMain.MACRO_DIRECTORY);
 	}
 
 	@Override
 
 	public void disabledPeriodic()
 	{
-
+		long start = System.nanoTime();
+		warmUp.step();
+		timings.disabledPeriodic.recordSince(start);
 	}
 }
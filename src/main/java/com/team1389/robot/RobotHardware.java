@@ -12,6 +12,10 @@ import com.team1389.hardware.registry.Registry;
  */
 public class RobotHardware extends RobotLayout
 {
+	/**
+	 * device configuration run during construction, kept for its timings
+	 */
+	protected final HardwareBringUp bringUp = new HardwareBringUp();
 
 	/**
 	 * Initializes robot hardware by subsystem. <br>
@@ -22,7 +26,14 @@ public class RobotHardware extends RobotLayout
 	{
 		registry = new Registry();
 		System.out.println("initializing hardware");
+		// claim ports with the registry here, one subsystem at a time, and
+		// add each device's slow configuration calls to bringUp
+		bringUp.run();
+	}
 
+	public HardwareBringUp getBringUp()
+	{
+		return bringUp;
 	}
 
 }
\ No newline at end of file
@@ -22,5 +22,6 @@ package com.team1389.robot;
  */
 public class RobotMap
 {
-
+	// vision
+	public static final int usb_VISION_CAMERA = 0;
 }
@@ -1,7 +1,20 @@
 package com.team1389.robot;
 
+import com.team1389.input.InputSnapshot;
+import com.team1389.output.OutputBus;
 
 public class RobotSoftware extends RobotHardware {
+	/**
+	 * main loop outputs go through here so each device is written at most
+	 * once a loop, and only when its value changes
+	 */
+	public final OutputBus outputs = new OutputBus();
+	/**
+	 * main loop sensors and controls go through here so each is read once a
+	 * loop and every subsystem sees the same value
+	 */
+	public final InputSnapshot inputs = new InputSnapshot();
+
 	private static RobotSoftware INSTANCE = new RobotSoftware();
 	public static RobotSoftware getInstance() {
 		return INSTANCE;
@@ -0,0 +1,18 @@
+package com.team1389.scheduling;
+
+import com.team1389.util.list.AddList;
+
+/**
+ * a subsystem that declares every output it writes. Subsystems that own no
+ * outputs in common can be updated at the same time
+ */
+public interface OutputOwner
+{
+    /**
+     * @param stem
+     *                 list to add the output objects to; they are compared by
+     *                 identity
+     * @return the list
+     */
+    AddList<Object> getOwnedOutputs(AddList<Object> stem);
+}
@@ -0,0 +1,370 @@
+package com.team1389.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import com.team1389.instrumentation.TimedSubsystem;
+import com.team1389.system.Subsystem;
+import com.team1389.util.list.AddList;
+
+/**
+ * updates subsystems that share no outputs at the same time. Subsystems are
+ * grouped by the outputs they declare through {@link OutputOwner}; anything
+ * that shares an output ends up in the same group and runs on the same thread
+ * in declared order. Groups are spread over {@link #LANES} lanes: the calling
+ * thread runs the first and a fixed worker thread runs each of the others.
+ * {@link #update()} returns only once every lane has finished, so outputs can
+ * be flushed right after it.
+ * <p>
+ * Subsystems that don't declare their outputs might touch anything, so they
+ * run alone on the calling thread before the rest. Lanes are rebalanced from
+ * measured update times every few seconds, and while the work that could be
+ * moved off the calling thread is cheaper than handing it over, everything
+ * runs on the calling thread.
+ * <p>
+ * Subsystems marked low priority skip their updates while
+ * {@link #setShedLowPriority(boolean) shedding}
+ */
+public class ParallelSystemManager
+{
+    // one lane per roboRIO core
+    public static final int LANES = 2;
+    private static final int REBALANCE_LOOPS = 250;
+    // waking a worker and waiting for it costs tens of microseconds
+    private static final long MIN_PARALLEL_NANOS = 100_000;
+
+    private final Subsystem[] subsystems;
+    private final Subsystem[] exclusive;
+    private final boolean[] exclusiveLowPriority;
+    private final Group[] groups;
+    private final Worker[] workers = new Worker[LANES - 1];
+    private long minParallelNanos = MIN_PARALLEL_NANOS;
+    private boolean parallel;
+    private boolean shedLowPriority;
+    private int loops;
+
+    public ParallelSystemManager(Subsystem... subsystems)
+    {
+        this.subsystems = subsystems;
+        List<Subsystem> undeclared = new ArrayList<>();
+        List<Subsystem> declared = new ArrayList<>();
+        for (Subsystem subsystem : subsystems)
+        {
+            (owner(subsystem) == null ? undeclared : declared).add(subsystem);
+        }
+        exclusive = undeclared.toArray(new Subsystem[0]);
+        exclusiveLowPriority = new boolean[exclusive.length];
+        groups = group(declared);
+        balance();
+    }
+
+    private static OutputOwner owner(Subsystem subsystem)
+    {
+        if (subsystem instanceof TimedSubsystem)
+        {
+            return owner(((TimedSubsystem) subsystem).getSubsystem());
+        }
+        return subsystem instanceof OutputOwner ? (OutputOwner) subsystem : null;
+    }
+
+    /**
+     * merges subsystems that share any output, keeping declared order within
+     * each group
+     */
+    private Group[] group(List<Subsystem> declared)
+    {
+        int[] parent = new int[declared.size()];
+        Map<Object, Integer> firstOwner = new IdentityHashMap<>();
+        for (int i = 0; i < parent.length; i++)
+        {
+            parent[i] = i;
+            for (Object output : owner(declared.get(i)).getOwnedOutputs(new AddList<>()))
+            {
+                Integer other = firstOwner.putIfAbsent(output, i);
+                if (other != null)
+                {
+                    parent[root(parent, i)] = root(parent, other);
+                }
+            }
+        }
+
+        Map<Integer, List<Subsystem>> members = new LinkedHashMap<>();
+        for (int i = 0; i < parent.length; i++)
+        {
+            members.computeIfAbsent(root(parent, i), r -> new ArrayList<>()).add(declared.get(i));
+        }
+        List<Group> groups = new ArrayList<>();
+        for (List<Subsystem> group : members.values())
+        {
+            groups.add(new Group(group.toArray(new Subsystem[0])));
+        }
+        return groups.toArray(new Group[0]);
+    }
+
+    private static int root(int[] parent, int i)
+    {
+        while (parent[i] != i)
+        {
+            i = parent[i] = parent[parent[i]];
+        }
+        return i;
+    }
+
+    /**
+     * inits every subsystem. Safe to call again, e.g. every teleopInit; the
+     * worker threads are only started the first time
+     */
+    public void init()
+    {
+        for (Subsystem subsystem : subsystems)
+        {
+            subsystem.init();
+        }
+        for (int i = 0; i < workers.length; i++)
+        {
+            if (workers[i] == null)
+            {
+                workers[i] = new Worker(i + 1);
+            }
+        }
+    }
+
+    /**
+     * updates every subsystem once, returning after all of them are done
+     */
+    public void update()
+    {
+        for (int i = 0; i < exclusive.length; i++)
+        {
+            if (!(shedLowPriority && exclusiveLowPriority[i]))
+            {
+                exclusive[i].update();
+            }
+        }
+        if (parallel)
+        {
+            for (int i = 0; i < workers.length; i++)
+            {
+                workers[i].start();
+            }
+            runLane(0);
+            for (int i = 0; i < workers.length; i++)
+            {
+                workers[i].await();
+            }
+        }
+        else
+        {
+            for (int i = 0; i < groups.length; i++)
+            {
+                groups[i].run();
+            }
+        }
+        if (++loops >= REBALANCE_LOOPS)
+        {
+            balance();
+        }
+    }
+
+    private void runLane(int lane)
+    {
+        for (int i = 0; i < groups.length; i++)
+        {
+            if (groups[i].lane == lane)
+            {
+                groups[i].run();
+            }
+        }
+    }
+
+    /**
+     * gives each group, most expensive first, to the least loaded lane
+     */
+    private void balance()
+    {
+        Group[] byCost = groups.clone();
+        Arrays.sort(byCost, Comparator.comparingLong((Group group) -> group.nanos).reversed());
+        long[] load = new long[LANES];
+        for (Group group : byCost)
+        {
+            int lightest = 0;
+            for (int lane = 1; lane < LANES; lane++)
+            {
+                if (load[lane] < load[lightest])
+                {
+                    lightest = lane;
+                }
+            }
+            group.lane = lightest;
+            // before anything is measured, spread groups by count
+            load[lightest] += Math.max(group.nanos, 1);
+            group.nanos = 0;
+        }
+        long offloaded = Long.MAX_VALUE;
+        for (int lane = 1; lane < LANES; lane++)
+        {
+            offloaded = Math.min(offloaded, load[lane]);
+        }
+        parallel = workers[0] != null && loops > 0 && offloaded / loops >= minParallelNanos;
+        loops = 0;
+    }
+
+    /**
+     * marks a subsystem whose updates can be skipped when the loop is over
+     * budget. Either the subsystem or the {@link TimedSubsystem} wrapping it
+     * may be given
+     */
+    public void setLowPriority(Subsystem subsystem)
+    {
+        for (int i = 0; i < exclusive.length; i++)
+        {
+            exclusiveLowPriority[i] |= unwrap(exclusive[i]) == unwrap(subsystem);
+        }
+        for (Group group : groups)
+        {
+            for (int i = 0; i < group.members.length; i++)
+            {
+                group.lowPriority[i] |= unwrap(group.members[i]) == unwrap(subsystem);
+            }
+        }
+    }
+
+    private static Subsystem unwrap(Subsystem subsystem)
+    {
+        return subsystem instanceof TimedSubsystem ? ((TimedSubsystem) subsystem).getSubsystem() : subsystem;
+    }
+
+    /**
+     * @param shed
+     *                 whether low-priority subsystems skip their updates.
+     *                 Call between updates
+     */
+    public void setShedLowPriority(boolean shed)
+    {
+        shedLowPriority = shed;
+    }
+
+    /**
+     * @param nanos
+     *                  update time per loop that has to be movable off the
+     *                  calling thread before lanes run in parallel; 0 to
+     *                  always run in parallel after the first rebalance
+     */
+    public void setMinParallelNanos(long nanos)
+    {
+        minParallelNanos = nanos;
+    }
+
+    /**
+     * @return whether the last rebalance decided parallel updates pay off
+     */
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    /**
+     * @return the number of groups that can update independently
+     */
+    public int getGroupCount()
+    {
+        return groups.length;
+    }
+
+    private class Group
+    {
+        private final Subsystem[] members;
+        private final boolean[] lowPriority;
+        private long nanos;
+        private int lane;
+
+        private Group(Subsystem[] members)
+        {
+            this.members = members;
+            lowPriority = new boolean[members.length];
+        }
+
+        private void run()
+        {
+            long start = System.nanoTime();
+            for (int i = 0; i < members.length; i++)
+            {
+                if (!(shedLowPriority && lowPriority[i]))
+                {
+                    members[i].update();
+                }
+            }
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    private class Worker implements Runnable
+    {
+        private final int lane;
+        private final Thread thread;
+        private volatile Thread caller;
+        private volatile long requested;
+        private volatile long completed;
+        private volatile RuntimeException failure;
+
+        private Worker(int lane)
+        {
+            this.lane = lane;
+            thread = new Thread(this, "subsystems " + lane);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.currentThread().getPriority());
+            thread.start();
+        }
+
+        private void start()
+        {
+            caller = Thread.currentThread();
+            requested++;
+            LockSupport.unpark(thread);
+        }
+
+        private void await()
+        {
+            while (completed != requested)
+            {
+                LockSupport.park(this);
+            }
+            RuntimeException thrown = failure;
+            if (thrown != null)
+            {
+                failure = null;
+                throw thrown;
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            long done = 0;
+            while (true)
+            {
+                while (requested == done)
+                {
+                    LockSupport.park(this);
+                }
+                done = requested;
+                try
+                {
+                    runLane(lane);
+                }
+                catch (RuntimeException e)
+                {
+                    failure = e;
+                }
+                completed = done;
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.team1389.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.team1389.control.ArmTransitionPlanner;
+import com.team1389.systems.Arm;
+
+/**
+ * times cargo cycles on the simulated arm with each step of a transition
+ * waiting for the one before it, then with transitions pipelined, and prints
+ * how much faster the pipelined ones are. Two cycles are timed: intake, store
+ * and hand off to the shooter; and intake, store and outtake from the arm.
+ * Exits with a non-zero status if any transition times out. Run with
+ * ./gradlew simulateArmCycles
+ * <p>
+ * Given an arm cost file, both runs plan routes from the move times in it,
+ * and the times measured by the pipelined run are saved back to it
+ */
+public class ArmCycleMain
+{
+    private static final double TIMEOUT_SECONDS = 10;
+    private static final int CYCLES = 20;
+
+    /**
+     * @param args
+     *                 optionally, the arm cost file to plan from and update
+     */
+    public static void main(String... args) throws IOException
+    {
+        Path costs = args.length > 0 ? Paths.get(args[0]) : null;
+        double[] sequential = run("sequential", false, costs, false);
+        double[] pipelined = run("pipelined", true, costs, true);
+        if (sequential == null || pipelined == null)
+        {
+            System.exit(1);
+        }
+        System.out.printf("%-20s %10s %10s %8s%n", "per cycle", "sequential", "pipelined", "saved");
+        String[] phases = { "intake and store", "hand off", "outtake and store" };
+        for (int i = 0; i < phases.length; i++)
+        {
+            print(phases[i], sequential[i], pipelined[i]);
+        }
+        print("hand off cycle", sequential[0] + sequential[1], pipelined[0] + pipelined[1]);
+        print("outtake cycle", sequential[0] + sequential[2], pipelined[0] + pipelined[2]);
+    }
+
+    private static void print(String phase, double sequential, double pipelined)
+    {
+        System.out.printf("%-20s %9.3fs %9.3fs %7.1f%%%n", phase, sequential, pipelined,
+                100 * (sequential - pipelined) / sequential);
+    }
+
+    /**
+     * @return mean seconds for intake and store, hand off, and outtake and
+     *         store, or null if a transition timed out
+     */
+    private static double[] run(String label, boolean pipeline, Path costs, boolean saveCosts) throws IOException
+    {
+        ArmSimulation simulation = new ArmSimulation();
+        simulation.getArm().setPipelineTransitions(pipeline);
+        ArmTransitionPlanner planner = simulation.getArm().getTransitionPlanner();
+        if (costs != null)
+        {
+            planner.load(costs);
+        }
+        // let the arm finish the store it starts in
+        if (Double.isNaN(runTransition(simulation, null)))
+        {
+            return null;
+        }
+        double[] totals = new double[3];
+        for (int i = 0; i < CYCLES; i++)
+        {
+            double intake = runTransition(simulation, Arm.State.INTAKE_CARGO_FROM_GROUND);
+            double handOff = runTransition(simulation, Arm.State.STORE_CARGO);
+            double intakeAgain = runTransition(simulation, Arm.State.INTAKE_CARGO_FROM_GROUND);
+            double outtake = runTransition(simulation, Arm.State.OUTTAKE_CARGO);
+            if (Double.isNaN(intake + handOff + intakeAgain + outtake))
+            {
+                System.out.printf("%s: cycle %d timed out%n", label, i);
+                return null;
+            }
+            totals[0] += (intake + intakeAgain) / 2;
+            totals[1] += handOff;
+            totals[2] += outtake;
+        }
+        for (int i = 0; i < totals.length; i++)
+        {
+            totals[i] /= CYCLES;
+        }
+        if (costs != null && saveCosts)
+        {
+            planner.save(costs);
+            System.out.println("saved arm move times to " + costs);
+        }
+        return totals;
+    }
+
+    /**
+     * enters the state, if one is given, and steps until its transition is
+     * done
+     *
+     * @return simulated seconds the transition took, or NaN if it timed out
+     */
+    private static double runTransition(ArmSimulation simulation, Arm.State state)
+    {
+        double start = simulation.getTime();
+        if (state != null)
+        {
+            simulation.getArm().enterState(state);
+        }
+        while (simulation.getArm().isTransitionRunning())
+        {
+            if (simulation.getTime() - start > TIMEOUT_SECONDS)
+            {
+                return Double.NaN;
+            }
+            simulation.step();
+        }
+        return simulation.getTime() - start;
+    }
+}
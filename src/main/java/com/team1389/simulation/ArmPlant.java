@@ -0,0 +1,113 @@
+package com.team1389.simulation;
+
+/**
+ * physics model of the arm: a rigid arm on a geared DC motor, with gravity
+ * torque, viscous friction, motor saturation and hard stops at either end of
+ * travel. Angles are in degrees with 0 parallel to the robot top, matching
+ * {@link com.team1389.systems.Arm.State}
+ */
+public class ArmPlant
+{
+    public static final double MIN_ANGLE = -15;
+    public static final double MAX_ANGLE = 115;
+
+    private static final double GRAVITY = 9.81;
+
+    // moment of inertia about the pivot (kg m^2)
+    private final double inertia;
+    // torque from gravity when the arm is horizontal (N m)
+    private final double gravityTorque;
+    // motor stall torque and free speed after the gearbox (N m, rad/s)
+    private final double stallTorque;
+    private final double freeSpeed;
+    // viscous friction (N m per rad/s)
+    private final double friction;
+
+    private double angle;
+    private double velocity;
+    private double input;
+
+    /**
+     * @param massKg
+     *                          mass of the arm and intake
+     * @param pivotToComMeters
+     *                          distance from the pivot to the center of mass
+     * @param stallTorque
+     *                          motor stall torque at the arm, in N m
+     * @param freeSpeedRpm
+     *                          motor free speed at the arm, in rpm
+     * @param friction
+     *                          viscous friction in N m per rad/s
+     */
+    public ArmPlant(double massKg, double pivotToComMeters, double stallTorque, double freeSpeedRpm, double friction)
+    {
+        this.inertia = massKg * pivotToComMeters * pivotToComMeters;
+        this.gravityTorque = massKg * GRAVITY * pivotToComMeters;
+        this.stallTorque = stallTorque;
+        this.freeSpeed = freeSpeedRpm * 2 * Math.PI / 60;
+        this.friction = friction;
+        this.angle = MAX_ANGLE;
+    }
+
+    /**
+     * roughly the competition arm: 5kg half a meter out, on a 775pro through
+     * a 200:1 reduction
+     */
+    public ArmPlant()
+    {
+        this(5, 0.5, 110, 90, 2);
+    }
+
+    /**
+     * @param percent
+     *                    motor output, saturated to [-1, 1]
+     */
+    public void setInput(double percent)
+    {
+        input = Math.max(-1, Math.min(1, percent));
+    }
+
+    /**
+     * advances the model by the given time step
+     */
+    public void step(double dt)
+    {
+        double theta = Math.toRadians(angle);
+        double motorTorque = stallTorque * (input - velocity / freeSpeed);
+        double torque = motorTorque - gravityTorque * Math.cos(theta) - friction * velocity;
+        velocity += torque / inertia * dt;
+        theta += velocity * dt;
+        angle = Math.toDegrees(theta);
+
+        // hard stops absorb all velocity into them
+        if (angle <= MIN_ANGLE)
+        {
+            angle = MIN_ANGLE;
+            velocity = Math.max(0, velocity);
+        }
+        else if (angle >= MAX_ANGLE)
+        {
+            angle = MAX_ANGLE;
+            velocity = Math.min(0, velocity);
+        }
+    }
+
+    public double getAngle()
+    {
+        return angle;
+    }
+
+    /**
+     * @return velocity in degrees per second
+     */
+    public double getVelocity()
+    {
+        return Math.toDegrees(velocity);
+    }
+
+    public void setAngle(double angle)
+    {
+        this.angle = Math.max(MIN_ANGLE, Math.min(MAX_ANGLE, angle));
+        this.velocity = 0;
+    }
+}
@@ -0,0 +1,132 @@
+package com.team1389.simulation;
+
+import com.team1389.commands.ManualClock;
+import com.team1389.systems.Arm;
+
+/**
+ * runs the real {@link Arm} against {@link ArmPlant} and
+ * {@link CargoIntakePlant} in virtual time. The arm is updated once per
+ * control period and the plant is integrated in smaller steps in between. The
+ * arm's waits run on a {@link ManualClock} advanced by each step, so nothing
+ * sleeps and a simulated second costs microseconds of CPU time
+ */
+public class ArmSimulation
+{
+    public static final double CONTROL_PERIOD = 0.02;
+    private static final int PLANT_STEPS_PER_PERIOD = 20;
+
+    private final ArmPlant plant;
+    private final CargoIntakePlant intake = new CargoIntakePlant();
+
+    private final SimDigitalOutput hatchOuttake = new SimDigitalOutput();
+    private final SimDigitalOutput cargoLauncher = new SimDigitalOutput();
+    private final SimRangeOutput cargoIntake = new SimRangeOutput();
+    private final SimRangeOutput armMotor = new SimRangeOutput();
+    private final SimRangeInput armAngle = new SimRangeInput();
+
+    private final ManualClock clock = new ManualClock();
+    private final Arm arm;
+
+    public ArmSimulation(ArmPlant plant)
+    {
+        this.plant = plant;
+        armAngle.set(plant.getAngle());
+        arm = new Arm(hatchOuttake.getDigitalOut(), cargoLauncher.getDigitalOut(), cargoIntake.getRangeOut(),
+                armMotor.getRangeOut(), intake.getBeamBreak().getDigitalIn(),
+                armAngle.getPositionIn(ArmPlant.MIN_ANGLE, ArmPlant.MAX_ANGLE), clock);
+        arm.init();
+    }
+
+    public ArmSimulation()
+    {
+        this(new ArmPlant());
+    }
+
+    /**
+     * runs one control period: updates the arm, then integrates the plant up
+     * to the next update
+     */
+    public void step()
+    {
+        arm.update();
+        double dt = CONTROL_PERIOD / PLANT_STEPS_PER_PERIOD;
+        for (int i = 0; i < PLANT_STEPS_PER_PERIOD; i++)
+        {
+            plant.setInput(armMotor.get());
+            plant.step(dt);
+            intake.step(cargoIntake.get(), plant.getAngle(), dt);
+        }
+        armAngle.set(plant.getAngle());
+        clock.advance(CONTROL_PERIOD);
+    }
+
+    /**
+     * enters the given state and steps until the arm is within tolerance of
+     * its angle
+     * 
+     * @param timeoutSeconds
+     *                           simulated time to give up after
+     * @return the simulated seconds it took to settle, or NaN if it timed out
+     */
+    public double enterStateAndSettle(Arm.State state, double timeoutSeconds)
+    {
+        double start = getTime();
+        arm.enterState(state);
+        while (getTime() - start < timeoutSeconds)
+        {
+            step();
+            if (Math.abs(plant.getAngle() - state.getAngle()) <= Arm.TOLERANCE_IN_DEGREES)
+            {
+                return getTime() - start;
+            }
+        }
+        return Double.NaN;
+    }
+
+    public Arm getArm()
+    {
+        return arm;
+    }
+
+    public ArmPlant getPlant()
+    {
+        return plant;
+    }
+
+    public CargoIntakePlant getIntake()
+    {
+        return intake;
+    }
+
+    public SimDigitalOutput getHatchOuttake()
+    {
+        return hatchOuttake;
+    }
+
+    public SimDigitalOutput getCargoLauncher()
+    {
+        return cargoLauncher;
+    }
+
+    public SimRangeOutput getCargoIntake()
+    {
+        return cargoIntake;
+    }
+
+    /**
+     * @return the clock the arm runs on. Other subsystems stepped alongside
+     *         the arm should share it
+     */
+    public ManualClock getClock()
+    {
+        return clock;
+    }
+
+    /**
+     * @return simulated seconds since the simulation started
+     */
+    public double getTime()
+    {
+        return clock.getSeconds();
+    }
+}
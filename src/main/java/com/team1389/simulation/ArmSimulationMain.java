@@ -0,0 +1,85 @@
+package com.team1389.simulation;
+
+import java.util.EnumMap;
+import java.util.Random;
+
+import com.team1389.systems.Arm;
+
+/**
+ * drives the simulated arm through random state transitions and prints the
+ * settle time for each {@link Arm.State}, once with step setpoints and once
+ * with motion profiles. Run with ./gradlew simulateArm
+ */
+public class ArmSimulationMain
+{
+    private static final double TIMEOUT_SECONDS = 10;
+
+    public static void main(String... args)
+    {
+        int transitions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        run("step setpoints", false, transitions);
+        run("motion profiled", true, transitions);
+    }
+
+    private static void run(String label, boolean useMotionProfiles, int transitions)
+    {
+        Arm.State[] states = Arm.State.values();
+        ArmSimulation simulation = new ArmSimulation();
+        simulation.getArm().setUseMotionProfiles(useMotionProfiles);
+        // same seed for every run so each one sees the same transitions
+        Random random = new Random(1389);
+
+        EnumMap<Arm.State, SettleStats> stats = new EnumMap<>(Arm.State.class);
+        for (Arm.State state : states)
+        {
+            stats.put(state, new SettleStats());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < transitions; i++)
+        {
+            Arm.State state = states[random.nextInt(states.length)];
+            stats.get(state).add(simulation.enterStateAndSettle(state, TIMEOUT_SECONDS));
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s: %d transitions, %.1f simulated s in %.3f wall s%n", label, transitions,
+                simulation.getTime(), wallSeconds);
+        System.out.printf("%-26s %6s %8s %8s %8s %8s%n", "state", "runs", "mean s", "min s", "max s", "timeouts");
+        for (Arm.State state : states)
+        {
+            SettleStats s = stats.get(state);
+            System.out.printf("%-26s %6d %8.3f %8.3f %8.3f %8d%n", state, s.runs, s.getMean(), s.min, s.max,
+                    s.timeouts);
+        }
+        System.out.println();
+    }
+
+    private static class SettleStats
+    {
+        int runs;
+        int timeouts;
+        double total;
+        double min = Double.POSITIVE_INFINITY;
+        double max;
+
+        void add(double seconds)
+        {
+            runs++;
+            if (Double.isNaN(seconds))
+            {
+                timeouts++;
+                return;
+            }
+            total += seconds;
+            min = Math.min(min, seconds);
+            max = Math.max(max, seconds);
+        }
+
+        double getMean()
+        {
+            int settled = runs - timeouts;
+            return settled == 0 ? Double.NaN : total / settled;
+        }
+    }
+}
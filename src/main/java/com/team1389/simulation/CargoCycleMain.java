@@ -0,0 +1,83 @@
+package com.team1389.simulation;
+
+import java.util.function.BooleanSupplier;
+
+import com.team1389.systems.Arm;
+import com.team1389.systems.Shooter;
+
+/**
+ * runs a full intake, store and shoot cycle of the arm and shooter in virtual
+ * time and checks each step happens. Exits with a non-zero status if any step
+ * times out. Run with ./gradlew simulateCargoCycle
+ */
+public class CargoCycleMain
+{
+    private static final double STEP_TIMEOUT = 10;
+
+    private final ArmSimulation simulation = new ArmSimulation();
+    private final SimDigitalOutput rightShooter = new SimDigitalOutput();
+    private final SimDigitalOutput leftShooter = new SimDigitalOutput();
+    private final SimDigitalInput shooterHasCargo = new SimDigitalInput();
+    private final Shooter shooter = new Shooter(rightShooter.getDigitalOut(), leftShooter.getDigitalOut(),
+            shooterHasCargo.getDigitalIn(), simulation.getClock());
+
+    public static void main(String... args)
+    {
+        long start = System.nanoTime();
+        boolean passed = new CargoCycleMain().run();
+        System.out.printf("cycle %s in %.3f ms of cpu time%n", passed ? "passed" : "FAILED",
+                (System.nanoTime() - start) / 1e6);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run()
+    {
+        shooter.init();
+        CargoIntakePlant intake = simulation.getIntake();
+
+        simulation.getArm().enterState(Arm.State.INTAKE_CARGO_FROM_GROUND);
+        if (!runUntil("cargo intaken", () -> intake.getBeamBreak().get())
+                || !runUntil("arm back at store", () -> atAngle(Arm.State.STORE_CARGO)))
+        {
+            return false;
+        }
+
+        int released = intake.getCargoReleased();
+        simulation.getArm().enterState(Arm.State.STORE_CARGO);
+        if (!runUntil("cargo handed to shooter", () -> intake.getCargoReleased() > released))
+        {
+            return false;
+        }
+        shooterHasCargo.set(true);
+
+        shooter.shootRight();
+        if (!runUntil("right shooter extended", rightShooter::get))
+        {
+            return false;
+        }
+        shooterHasCargo.set(false);
+        return runUntil("shooter reset", () -> !rightShooter.get());
+    }
+
+    private boolean atAngle(Arm.State state)
+    {
+        return Math.abs(simulation.getPlant().getAngle() - state.getAngle()) <= Arm.TOLERANCE_IN_DEGREES;
+    }
+
+    private boolean runUntil(String step, BooleanSupplier done)
+    {
+        double start = simulation.getTime();
+        while (!done.getAsBoolean())
+        {
+            if (simulation.getTime() - start > STEP_TIMEOUT)
+            {
+                System.out.printf("%-26s timed out after %.2f s%n", step, STEP_TIMEOUT);
+                return false;
+            }
+            simulation.step();
+            shooter.update();
+        }
+        System.out.printf("%-26s at %6.2f s%n", step, simulation.getTime());
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.team1389.simulation;
+
+/**
+ * models cargo moving through the arm's intake, and the beam break that sees
+ * it. Cargo is picked up after the intake has pulled in for long enough with
+ * the arm near the ground, and leaves after the intake has pushed out for long
+ * enough
+ */
+public class CargoIntakePlant
+{
+    private static final double INTAKE_SECONDS = 0.4;
+    private static final double OUTTAKE_SECONDS = 0.3;
+    private static final double GROUND_ANGLE = -5;
+    private static final double RUNNING = 0.5;
+
+    private final SimDigitalInput beamBreak = new SimDigitalInput();
+    private double runTime;
+    private int cargoReleased;
+
+    /**
+     * @param intakeOutput
+     *                         output sent to the intake wheels; negative pulls
+     *                         cargo in
+     * @param armAngle
+     *                         current arm angle in degrees
+     */
+    public void step(double intakeOutput, double armAngle, double dt)
+    {
+        boolean hasCargo = beamBreak.get();
+        boolean pulling = !hasCargo && intakeOutput < -RUNNING && armAngle <= GROUND_ANGLE;
+        boolean pushing = hasCargo && intakeOutput > RUNNING;
+        runTime = pulling || pushing ? runTime + dt : 0;
+        if (pulling && runTime >= INTAKE_SECONDS)
+        {
+            beamBreak.set(true);
+            runTime = 0;
+        }
+        else if (pushing && runTime >= OUTTAKE_SECONDS)
+        {
+            beamBreak.set(false);
+            runTime = 0;
+            cargoReleased++;
+        }
+    }
+
+    /**
+     * @return how many times cargo has been pushed out of the intake
+     */
+    public int getCargoReleased()
+    {
+        return cargoReleased;
+    }
+
+    public void setHasCargo(boolean hasCargo)
+    {
+        beamBreak.set(hasCargo);
+        runTime = 0;
+    }
+
+    public SimDigitalInput getBeamBreak()
+    {
+        return beamBreak;
+    }
+}
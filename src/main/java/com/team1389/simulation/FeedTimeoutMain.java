@@ -0,0 +1,97 @@
+package com.team1389.simulation;
+
+import com.team1389.commands.Clock;
+import com.team1389.configuration.PIDConstants;
+import com.team1389.control.ArmControlLoop;
+import com.team1389.control.TrapezoidProfile;
+import com.team1389.systems.Arm;
+
+/**
+ * runs the arm's control loop on its own thread in real time, feeds it for a
+ * while, then stops feeding it as a stalled main loop would. Then does the
+ * same through a whole {@link Arm} part way through a move, and lets its main
+ * loop recover. Exits with a non-zero status unless the loop drove the motor
+ * while fed, then disabled itself and left the motor stopped, and the arm
+ * picked its move back up once its main loop ran again. Run with ./gradlew
+ * simulateFeedTimeout
+ */
+public class FeedTimeoutMain
+{
+    private static final double HZ = 200;
+    private static final long FED_MILLIS = 200;
+    private static final long LOOP_MILLIS = 20;
+
+    public static void main(String... args) throws InterruptedException
+    {
+        SimRangeInput armAngle = new SimRangeInput();
+        SimRangeOutput armMotor = new SimRangeOutput();
+        ArmControlLoop loop = new ArmControlLoop(new PIDConstants(0.01, 0, 0),
+                armAngle.getPositionIn(ArmPlant.MIN_ANGLE, ArmPlant.MAX_ANGLE), armMotor.getRangeOut(), 0.22,
+                1.0 / 540, new TrapezoidProfile(450, 2500), Clock.SYSTEM);
+        loop.setInputRange(ArmPlant.MIN_ANGLE, ArmPlant.MAX_ANGLE);
+        loop.runThreaded(HZ);
+        loop.setSetpoint(90);
+        loop.enable();
+
+        long end = System.nanoTime() + FED_MILLIS * 1_000_000;
+        while (System.nanoTime() < end)
+        {
+            loop.feed();
+            Thread.sleep(20);
+        }
+        double fedOutput = armMotor.get();
+
+        Thread.sleep((long) (ArmControlLoop.FEED_TIMEOUT * 3000));
+        double stalledOutput = armMotor.get();
+        System.out.printf("output while fed %.3f, after the feed timeout %.3f, %s%n", fedOutput, stalledOutput,
+                loop.isEnabled() ? "still enabled" : "disabled");
+        if (fedOutput == 0 || stalledOutput != 0 || loop.isEnabled())
+        {
+            System.out.println("feed timeout failed to stop the arm");
+            System.exit(1);
+        }
+        if (!recoversAfterStall())
+        {
+            System.out.println("arm didn't resume its move after the main loop recovered");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * stalls the main loop of an arm part way through a move; the angle is
+     * held away from the target so the move never finishes on its own
+     */
+    private static boolean recoversAfterStall() throws InterruptedException
+    {
+        SimRangeInput armAngle = new SimRangeInput();
+        SimRangeOutput armMotor = new SimRangeOutput();
+        armAngle.set(Arm.State.STORE_CARGO.getAngle());
+        Arm arm = new Arm(new SimDigitalOutput().getDigitalOut(), new SimDigitalOutput().getDigitalOut(),
+                new SimRangeOutput().getRangeOut(), armMotor.getRangeOut(), new SimDigitalInput().getDigitalIn(),
+                armAngle.getPositionIn(ArmPlant.MIN_ANGLE, ArmPlant.MAX_ANGLE));
+        arm.init();
+        arm.runControlLoopAt(HZ);
+        arm.enterState(Arm.State.OUTTAKE_HATCH);
+        runMainLoop(arm, FED_MILLIS);
+        double movingOutput = armMotor.get();
+
+        Thread.sleep((long) (ArmControlLoop.FEED_TIMEOUT * 3000));
+        double stalledOutput = armMotor.get();
+
+        runMainLoop(arm, FED_MILLIS);
+        double recoveredOutput = armMotor.get();
+        System.out.printf("arm output moving %.3f, stalled %.3f, after the main loop recovered %.3f%n",
+                movingOutput, stalledOutput, recoveredOutput);
+        return movingOutput != 0 && stalledOutput == 0 && recoveredOutput != 0;
+    }
+
+    private static void runMainLoop(Arm arm, long millis) throws InterruptedException
+    {
+        long end = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < end)
+        {
+            arm.update();
+            Thread.sleep(LOOP_MILLIS);
+        }
+    }
+}
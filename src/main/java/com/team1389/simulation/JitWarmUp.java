@@ -0,0 +1,171 @@
+package com.team1389.simulation;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.team1389.telemetry.TelemetryChannel;
+
+/**
+ * gets the JIT to compile the teleop hot paths before teleop starts. While
+ * the robot is disabled, {@link #step()} drives a throwaway copy of the
+ * subsystems, built on the in-memory stand-ins so nothing reaches hardware,
+ * with random driver input and an arm that snaps to wherever it is told to
+ * go. It runs in short slices, checked after every loop, so disabled loops
+ * stay on time, and stops once the JIT has gone a few batches without
+ * compiling anything. The copy is then
+ * thrown away, so the real subsystems start teleop in their initial state.
+ * <p>
+ * The first loop of a fresh copy is timed before and after warming up, to
+ * show what the first teleop loop costs interpreted and compiled
+ */
+public class JitWarmUp
+{
+    private static final long SLICE_NANOS = 8_000_000;
+    private static final int BATCH_LOOPS = 500;
+    // batches in a row without new compilation before the JIT counts as done
+    private static final int QUIET_BATCHES = 5;
+    private static final long MAX_LOOPS = 100_000;
+    private static final double PRESS_CHANCE = 0.05;
+
+    private final CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+    private final Random random = new Random(1389);
+    private ReplayHarness robot;
+    private List<SimDigitalInput> buttons;
+    private SimRangeInput armAngle;
+    private SimRangeInput armAxis;
+    private TelemetryChannel armTarget;
+
+    private long loops;
+    // loops run so far in the current batch, which can span several calls
+    private int batchLoops;
+    private long lastCompileMillis = -1;
+    private int quietBatches;
+    private boolean done;
+    private double coldMillis = Double.NaN;
+    private double warmMillis = Double.NaN;
+
+    /**
+     * runs warm-up loops for a few milliseconds. Call from every disabled
+     * loop until {@link #isDone()}
+     */
+    public void step()
+    {
+        if (done)
+        {
+            return;
+        }
+        if (robot == null)
+        {
+            // class loading makes this slow; leave the loops for later calls
+            coldMillis = timeFirstLoop();
+            attach(new ReplayHarness());
+            return;
+        }
+        long end = System.nanoTime() + SLICE_NANOS;
+        while (!done && System.nanoTime() < end)
+        {
+            runLoop();
+            if (++batchLoops == BATCH_LOOPS)
+            {
+                batchLoops = 0;
+                finishBatch();
+            }
+        }
+    }
+
+    private void attach(ReplayHarness harness)
+    {
+        robot = harness;
+        buttons = new ArrayList<>();
+        for (TelemetryChannel channel : robot.getChannels())
+        {
+            SimDigitalInput input = robot.getDigitalInput(channel.getName());
+            if (input != null)
+            {
+                buttons.add(input);
+            }
+            if (channel.getName().equals("arm/target"))
+            {
+                armTarget = channel;
+            }
+        }
+        armAngle = robot.getRangeInput("arm/angle");
+        armAxis = robot.getRangeInput("arm/axis");
+    }
+
+    private void runLoop()
+    {
+        for (int b = 0; b < buttons.size(); b++)
+        {
+            if (random.nextDouble() < PRESS_CHANCE)
+            {
+                SimDigitalInput button = buttons.get(b);
+                button.set(!button.get());
+            }
+        }
+        armAxis.set(random.nextDouble() * 2 - 1);
+        // usually arrive, sometimes not, so both branches get compiled
+        armAngle.set(random.nextBoolean() ? armTarget.getAsDouble() : random.nextDouble() * 130 - 15);
+        robot.getClock().advance(0.02);
+        robot.update();
+        loops++;
+    }
+
+    /**
+     * checks whether the JIT compiled anything during the batch just run
+     */
+    private void finishBatch()
+    {
+        long compileMillis = compiler == null ? 0 : compiler.getTotalCompilationTime();
+        quietBatches = compileMillis == lastCompileMillis ? quietBatches + 1 : 0;
+        lastCompileMillis = compileMillis;
+        if (quietBatches >= QUIET_BATCHES || loops >= MAX_LOOPS)
+        {
+            finish();
+        }
+    }
+
+    private void finish()
+    {
+        robot = null;
+        buttons = null;
+        warmMillis = timeFirstLoop();
+        done = true;
+        System.out.printf("JIT warm-up: %d loops; first loop %.3f ms cold, %.3f ms warm%n", loops, coldMillis,
+                warmMillis);
+    }
+
+    /**
+     * @return how long the first loop of freshly built subsystems takes
+     */
+    private double timeFirstLoop()
+    {
+        ReplayHarness fresh = new ReplayHarness();
+        long start = System.nanoTime();
+        fresh.update();
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    public long getLoops()
+    {
+        return loops;
+    }
+
+    public double getColdFirstLoopMillis()
+    {
+        return coldMillis;
+    }
+
+    public double getWarmFirstLoopMillis()
+    {
+        return warmMillis;
+    }
+}
@@ -0,0 +1,226 @@
+package com.team1389.simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.team1389.commands.ManualClock;
+import com.team1389.hardware.inputs.software.DigitalIn;
+import com.team1389.hardware.value_types.Percent;
+import com.team1389.input.InputSnapshot;
+import com.team1389.output.OutputBus;
+import com.team1389.system.Subsystem;
+import com.team1389.systems.Climber;
+import com.team1389.systems.TeleopArm;
+import com.team1389.systems.TeleopShooter;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryLog;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+
+/**
+ * feeds recorded sensor and driver input streams into real {@link TeleopArm},
+ * {@link TeleopShooter} and {@link Climber} objects loop by loop, and compares
+ * every output channel they report against what was recorded. Runs on a
+ * {@link ManualClock} set from the recorded timestamps, so a whole match
+ * replays as fast as the CPU allows
+ */
+public class ReplayHarness
+{
+    // allowed difference between numbers, relative, to absorb float rounding
+    private static final double TOLERANCE = 1e-3;
+
+    private final ManualClock clock = new ManualClock();
+    private final Map<String, SimDigitalInput> digitalInputs = new HashMap<>();
+    private final Map<String, SimRangeInput> rangeInputs = new HashMap<>();
+    private final InputSnapshot snapshot = new InputSnapshot();
+    private final OutputBus bus = new OutputBus();
+    private final Subsystem[] subsystems;
+    private final AddList<TelemetryChannel> channels = new AddList<>();
+
+    public ReplayHarness()
+    {
+        SimDigitalOutput hatchOuttake = new SimDigitalOutput();
+        SimDigitalOutput cargoLauncher = new SimDigitalOutput();
+        SimRangeOutput cargoIntake = new SimRangeOutput();
+        SimRangeOutput arm = new SimRangeOutput();
+        // the arm motor and angle sensor skip the bus and snapshot, as on the
+        // robot
+        TeleopArm teleopArm = new TeleopArm(bus.buffer(hatchOuttake.getDigitalOut()),
+                bus.buffer(cargoLauncher.getDigitalOut()), bus.buffer(cargoIntake.getRangeOut()),
+                arm.getRangeOut(), sensor("arm/cargo beam break"),
+                range("arm/angle").getPositionIn(ArmPlant.MIN_ANGLE, ArmPlant.MAX_ANGLE),
+                snapshot.snapshot(Percent.class, range("arm/axis").getPercentIn(), -1, 1), digital("arm/buttons/outtake hatch"),
+                digital("arm/buttons/intake hatch ground"), digital("arm/buttons/intake hatch feeder"),
+                digital("arm/buttons/outtake cargo"), digital("arm/buttons/intake cargo"),
+                digital("arm/buttons/prep for climb"), digital("arm/buttons/store cargo"),
+                digital("arm/buttons/toggle manual"), true, clock);
+        // the pid has to step in lockstep with the replayed loops
+        teleopArm.setArmControlHz(0);
+
+        SimDigitalOutput rightShooter = new SimDigitalOutput();
+        SimDigitalOutput leftShooter = new SimDigitalOutput();
+        TeleopShooter teleopShooter = new TeleopShooter(bus.buffer(rightShooter.getDigitalOut()),
+                bus.buffer(leftShooter.getDigitalOut()), digital("shooter/buttons/right"),
+                digital("shooter/buttons/left"), sensor("shooter/has cargo"), clock);
+
+        SimDigitalOutput liftPiston = new SimDigitalOutput();
+        SimRangeOutput wheelVoltage = new SimRangeOutput();
+        Climber climber = new Climber(bus.buffer(liftPiston.getDigitalOut()),
+                bus.buffer(wheelVoltage.getPercentOut()), sensor("climber/bump switch"),
+                digital("climber/toggle lift"), clock);
+
+        subsystems = new Subsystem[] { teleopArm, teleopShooter, climber };
+        for (Subsystem subsystem : subsystems)
+        {
+            subsystem.init();
+            ((TelemetrySource) subsystem).getTelemetryChannels(channels);
+        }
+    }
+
+    private DigitalIn digital(String channel)
+    {
+        SimDigitalInput input = new SimDigitalInput();
+        digitalInputs.put(channel, input);
+        return snapshot.snapshot(input.getDigitalIn());
+    }
+
+    private DigitalIn sensor(String channel)
+    {
+        SimDigitalInput input = new SimDigitalInput();
+        digitalInputs.put(channel, input);
+        return snapshot.sensor(input.getDigitalIn());
+    }
+
+    private SimRangeInput range(String channel)
+    {
+        SimRangeInput input = new SimRangeInput();
+        rangeInputs.put(channel, input);
+        return input;
+    }
+
+    /**
+     * runs one loop: samples inputs, updates every subsystem, flushes outputs
+     */
+    public void update()
+    {
+        snapshot.sample();
+        for (Subsystem subsystem : subsystems)
+        {
+            subsystem.update();
+        }
+        bus.flush();
+    }
+
+    /**
+     * @return every channel the subsystems report, inputs included
+     */
+    public List<TelemetryChannel> getChannels()
+    {
+        return channels;
+    }
+
+    /**
+     * @return the stand-in behind a recorded input channel, or null
+     */
+    public SimDigitalInput getDigitalInput(String channel)
+    {
+        return digitalInputs.get(channel);
+    }
+
+    /**
+     * @return the stand-in behind a recorded input channel, or null
+     */
+    public SimRangeInput getRangeInput(String channel)
+    {
+        return rangeInputs.get(channel);
+    }
+
+    public ManualClock getClock()
+    {
+        return clock;
+    }
+
+    public InputSnapshot getInputSnapshot()
+    {
+        return snapshot;
+    }
+
+    public OutputBus getOutputBus()
+    {
+        return bus;
+    }
+
+    /**
+     * replays every record in the log. A harness holds subsystem state, so
+     * use a new one for each log
+     */
+    public ReplayResult replay(TelemetryLog log)
+    {
+        // resolve everything by name up front so the loop is just indexing
+        List<SimDigitalInput> boundDigital = new ArrayList<>();
+        List<Integer> boundDigitalChannels = new ArrayList<>();
+        List<SimRangeInput> boundRange = new ArrayList<>();
+        List<Integer> boundRangeChannels = new ArrayList<>();
+        for (Map.Entry<String, SimDigitalInput> input : digitalInputs.entrySet())
+        {
+            int channel = log.indexOf(input.getKey());
+            if (channel >= 0)
+            {
+                boundDigital.add(input.getValue());
+                boundDigitalChannels.add(channel);
+            }
+        }
+        for (Map.Entry<String, SimRangeInput> input : rangeInputs.entrySet())
+        {
+            int channel = log.indexOf(input.getKey());
+            if (channel >= 0)
+            {
+                boundRange.add(input.getValue());
+                boundRangeChannels.add(channel);
+            }
+        }
+
+        List<TelemetryChannel> outputs = new ArrayList<>();
+        List<Integer> outputChannels = new ArrayList<>();
+        for (TelemetryChannel channel : channels)
+        {
+            String name = channel.getName();
+            int recorded = log.indexOf(name);
+            boolean isInput = digitalInputs.containsKey(name) || rangeInputs.containsKey(name);
+            if (recorded >= 0 && !isInput && !name.endsWith(" ms"))
+            {
+                outputs.add(channel);
+                outputChannels.add(recorded);
+            }
+        }
+
+        ReplayResult result = new ReplayResult(outputs);
+        long start = System.nanoTime();
+        for (int record = 0; record < log.getRecordCount(); record++)
+        {
+            clock.set(log.getTimestamp(record));
+            for (int i = 0; i < boundDigital.size(); i++)
+            {
+                boundDigital.get(i).set(log.getBoolean(record, boundDigitalChannels.get(i)));
+            }
+            for (int i = 0; i < boundRange.size(); i++)
+            {
+                boundRange.get(i).set(log.getAsDouble(record, boundRangeChannels.get(i)));
+            }
+            update();
+            for (int i = 0; i < outputs.size(); i++)
+            {
+                double expected = log.getAsDouble(record, outputChannels.get(i));
+                double actual = outputs.get(i).getAsDouble();
+                if (Math.abs(expected - actual) > TOLERANCE * Math.max(1, Math.abs(expected)))
+                {
+                    result.mismatch(i, record, expected, actual);
+                }
+            }
+        }
+        result.finish(log.getRecordCount(), System.nanoTime() - start);
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.team1389.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.team1389.telemetry.TelemetryLog;
+
+/**
+ * replays telemetry logs through the current control code and reports any
+ * outputs that differ from what was recorded. Takes log files or directories
+ * of them, and exits with a non-zero status if anything differs. Run with
+ * ./gradlew replayTelemetry -Plogs=path/to/logs
+ */
+public class ReplayMain
+{
+    public static void main(String... args) throws IOException
+    {
+        List<Path> logs = new ArrayList<>();
+        for (String arg : args)
+        {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path))
+            {
+                try (Stream<Path> files = Files.list(path))
+                {
+                    logs.addAll(files.filter(f -> f.toString().endsWith(".bin")).sorted()
+                            .collect(Collectors.toList()));
+                }
+            }
+            else
+            {
+                logs.add(path);
+            }
+        }
+
+        boolean allMatch = true;
+        for (Path log : logs)
+        {
+            System.out.println(log);
+            ReplayHarness harness = new ReplayHarness();
+            ReplayResult result = harness.replay(new TelemetryLog(log));
+            result.print();
+            System.out.printf("outputs set %d times, %d sent to devices%n", harness.getOutputBus().getRequested(),
+                    harness.getOutputBus().getIssued());
+            allMatch &= result.matches();
+        }
+        System.exit(allMatch ? 0 : 1);
+    }
+}
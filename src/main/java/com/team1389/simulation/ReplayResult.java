@@ -0,0 +1,81 @@
+package com.team1389.simulation;
+
+import java.util.List;
+
+import com.team1389.telemetry.TelemetryChannel;
+
+/**
+ * per-channel differences between a replay and the recorded outputs
+ */
+public class ReplayResult
+{
+    private final List<TelemetryChannel> outputs;
+    private final int[] mismatches;
+    private final int[] firstMismatch;
+    private final double[] firstExpected;
+    private final double[] firstActual;
+    private int records;
+    private long nanos;
+
+    public ReplayResult(List<TelemetryChannel> outputs)
+    {
+        this.outputs = outputs;
+        mismatches = new int[outputs.size()];
+        firstMismatch = new int[outputs.size()];
+        firstExpected = new double[outputs.size()];
+        firstActual = new double[outputs.size()];
+    }
+
+    void mismatch(int output, int record, double expected, double actual)
+    {
+        if (mismatches[output]++ == 0)
+        {
+            firstMismatch[output] = record;
+            firstExpected[output] = expected;
+            firstActual[output] = actual;
+        }
+    }
+
+    void finish(int records, long nanos)
+    {
+        this.records = records;
+        this.nanos = nanos;
+    }
+
+    public boolean matches()
+    {
+        for (int count : mismatches)
+        {
+            if (count > 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getRecords()
+    {
+        return records;
+    }
+
+    public double getSeconds()
+    {
+        return nanos / 1e9;
+    }
+
+    public void print()
+    {
+        System.out.printf("replayed %d loops in %.3f s, comparing %d outputs%n", records, getSeconds(),
+                outputs.size());
+        for (int i = 0; i < outputs.size(); i++)
+        {
+            if (mismatches[i] > 0)
+            {
+                System.out.printf("  %-30s %6d mismatches, first at loop %d: recorded %s, replayed %s%n",
+                        outputs.get(i).getName(), mismatches[i], firstMismatch[i], firstExpected[i],
+                        firstActual[i]);
+            }
+        }
+    }
+}
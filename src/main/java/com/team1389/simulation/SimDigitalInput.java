@@ -0,0 +1,27 @@
+package com.team1389.simulation;
+
+import com.team1389.hardware.inputs.software.DigitalIn;
+
+/**
+ * in-memory stand-in for a digital sensor or button
+ */
+public class SimDigitalInput
+{
+    private boolean value;
+    private final DigitalIn digitalIn = new DigitalIn(() -> value);
+
+    public void set(boolean value)
+    {
+        this.value = value;
+    }
+
+    public boolean get()
+    {
+        return value;
+    }
+
+    public DigitalIn getDigitalIn()
+    {
+        return digitalIn;
+    }
+}
@@ -0,0 +1,35 @@
+package com.team1389.simulation;
+
+import com.team1389.hardware.outputs.software.DigitalOut;
+
+/**
+ * in-memory stand-in for a solenoid or other digital output. Counts how many
+ * times it is written
+ */
+public class SimDigitalOutput
+{
+    private boolean value;
+    private long writes;
+    private final DigitalOut digitalOut = new DigitalOut(this::write);
+
+    private void write(boolean value)
+    {
+        this.value = value;
+        writes++;
+    }
+
+    public boolean get()
+    {
+        return value;
+    }
+
+    public long getWrites()
+    {
+        return writes;
+    }
+
+    public DigitalOut getDigitalOut()
+    {
+        return digitalOut;
+    }
+}
@@ -0,0 +1,33 @@
+package com.team1389.simulation;
+
+import com.team1389.hardware.inputs.software.RangeIn;
+import com.team1389.hardware.value_types.Percent;
+import com.team1389.hardware.value_types.Position;
+
+/**
+ * in-memory stand-in for an analog sensor or joystick axis
+ */
+public class SimRangeInput
+{
+    private double value;
+
+    public void set(double value)
+    {
+        this.value = value;
+    }
+
+    public double get()
+    {
+        return value;
+    }
+
+    public RangeIn<Position> getPositionIn(double min, double max)
+    {
+        return new RangeIn<>(Position.class, () -> value, min, max);
+    }
+
+    public RangeIn<Percent> getPercentIn()
+    {
+        return new RangeIn<>(Percent.class, () -> value, -1, 1);
+    }
+}
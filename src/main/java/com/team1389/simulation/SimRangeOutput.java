@@ -0,0 +1,42 @@
+package com.team1389.simulation;
+
+import com.team1389.hardware.outputs.software.PercentOut;
+import com.team1389.hardware.outputs.software.RangeOut;
+import com.team1389.hardware.value_types.Percent;
+
+/**
+ * in-memory stand-in for a motor controller. Counts how many times it is
+ * written
+ */
+public class SimRangeOutput
+{
+    private double value;
+    private long writes;
+    private final PercentOut percentOut = new PercentOut(this::write);
+
+    private void write(double value)
+    {
+        this.value = value;
+        writes++;
+    }
+
+    public double get()
+    {
+        return value;
+    }
+
+    public long getWrites()
+    {
+        return writes;
+    }
+
+    public RangeOut<Percent> getRangeOut()
+    {
+        return percentOut;
+    }
+
+    public PercentOut getPercentOut()
+    {
+        return percentOut;
+    }
+}
@@ -0,0 +1,53 @@
+package com.team1389.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import com.team1389.instrumentation.StartupTimer;
+import com.team1389.telemetry.TelemetryOffload;
+import com.team1389.telemetry.TelemetryRecorder;
+
+/**
+ * goes through the same startup as the robot, on the in-memory stand-ins:
+ * builds the subsystems, opens telemetry and runs the first second of loops,
+ * then prints how long each step took since the JVM started. Used to record
+ * the class list for the class-data sharing archive and to time startup with
+ * and without it
+ */
+public class StartupMain
+{
+    public static final int LOOPS = 50;
+
+    public static void main(String... args) throws IOException
+    {
+        StartupTimer startup = new StartupTimer("simulated startup");
+        ReplayHarness robot = new ReplayHarness();
+        startup.mark("subsystems");
+
+        Path directory = Files.createTempDirectory("telemetry");
+        TelemetryOffload offload = new TelemetryOffload(robot.getChannels(), 64, robot.getClock());
+        TelemetryRecorder recorder = TelemetryRecorder.open(directory, offload.getChannels(), offload.getClock());
+        offload.addConsumer(recorder::record);
+        offload.start();
+        startup.mark("telemetry");
+
+        for (int i = 0; i < LOOPS; i++)
+        {
+            robot.getClock().advance(0.02);
+            robot.update();
+            offload.sample();
+        }
+        startup.mark(LOOPS + " loops");
+        startup.print();
+
+        offload.stop();
+        recorder.close();
+        try (Stream<Path> files = Files.list(directory))
+        {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,83 @@
+package com.team1389.simulation;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.team1389.commands.Clock;
+import com.team1389.vision.ImageFolderSource;
+import com.team1389.vision.TargetPipeline;
+import com.team1389.vision.TargetTracker;
+import com.team1389.vision.VisionTarget;
+
+import edu.wpi.cscore.CameraServerJNI;
+
+/**
+ * measures how many frames a second the vision pipeline handles on this
+ * machine, over a folder of recorded camera images. Prints what was found in
+ * each image, then the rate with frames processed back to back, then the rate
+ * on the vision thread with a stand-in main loop reading results every 20 ms.
+ * Run with ./gradlew benchmarkVision -Pimages=path/to/images
+ */
+public class VisionBenchmarkMain
+{
+    private static final double WARMUP_SECONDS = 2;
+
+    /**
+     * @param args
+     *                 image folder, then seconds to measure for
+     */
+    public static void main(String... args) throws IOException, InterruptedException
+    {
+        // loads OpenCV's natives along with cscore's
+        CameraServerJNI.forceLoad();
+        ImageFolderSource images = new ImageFolderSource(Paths.get(args[0]));
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+
+        TargetPipeline pipeline = new TargetPipeline();
+        TargetTracker tracker = new TargetTracker(images, pipeline, Clock.SYSTEM);
+        VisionTarget target = new VisionTarget();
+        for (int i = 0; i < images.getImageCount(); i++)
+        {
+            tracker.processFrame();
+            tracker.getLatest(target);
+            System.out.printf("%-30s %d strips, %s%n", images.getImageName(i), pipeline.getStripCount(),
+                    target.isFound() ? String.format("target at %.1f deg, %.0f px apart", target.getYawDegrees(),
+                            target.getSeparationPixels()) : "no target");
+        }
+
+        runFor(tracker, WARMUP_SECONDS);
+        long frames = tracker.getFrames();
+        long start = System.nanoTime();
+        runFor(tracker, seconds);
+        report("back to back", tracker.getFrames() - frames, System.nanoTime() - start);
+
+        frames = tracker.getFrames();
+        start = System.nanoTime();
+        tracker.start();
+        long reads = 0;
+        while (System.nanoTime() - start < seconds * 1e9)
+        {
+            Thread.sleep(20);
+            tracker.getLatest(target);
+            reads++;
+        }
+        tracker.stop();
+        report("on the vision thread", tracker.getFrames() - frames, System.nanoTime() - start);
+        System.out.printf("main loop read the latest target %d times%n", reads);
+    }
+
+    private static void runFor(TargetTracker tracker, double seconds)
+    {
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        while (System.nanoTime() < end)
+        {
+            tracker.processFrame();
+        }
+    }
+
+    private static void report(String how, long frames, long nanos)
+    {
+        System.out.printf("%s: %d frames in %.2f s, %.1f fps, %.2f ms a frame%n", how, frames, nanos / 1e9,
+                frames / (nanos / 1e9), nanos / 1e6 / frames);
+    }
+}
@@ -1,33 +1,97 @@
 package com.team1389.systems;
 
-import com.team1389.auto.command.WaitTimeCommand;
-import com.team1389.command_framework.CommandUtil;
-import com.team1389.command_framework.command_base.Command;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.function.BooleanSupplier;
+
+import com.team1389.commands.Clock;
+import com.team1389.commands.ResourceScheduler;
+import com.team1389.commands.ReusableCommand;
+import com.team1389.commands.ReusableGraph;
+import com.team1389.commands.ReusableSequence;
+import com.team1389.commands.RunOnceCommand;
+import com.team1389.commands.RunUntilCommand;
+import com.team1389.commands.WaitCommand;
 import com.team1389.configuration.PIDConstants;
-import com.team1389.controllers.SynchronousPIDController;
+import com.team1389.control.ArmControlLoop;
+import com.team1389.control.ArmProfileTable;
+import com.team1389.control.ArmTransitionPlanner;
+import com.team1389.control.TrapezoidProfile;
 import com.team1389.hardware.inputs.software.DigitalIn;
 import com.team1389.hardware.inputs.software.RangeIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
 import com.team1389.hardware.outputs.software.RangeOut;
 import com.team1389.hardware.value_types.Percent;
 import com.team1389.hardware.value_types.Position;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
+import com.team1389.watch.info.NumberInfo;
 import com.team1389.watch.info.StringInfo;
 
 /**
  * implements autonomous control of arm subsystem
  */
 
-public class Arm extends Subsystem
+public class Arm extends Subsystem implements TelemetrySource, OutputOwner
 {
     // Closed-loop control
-    private SynchronousPIDController<Percent, Position> controller;
+    // owns the pid controller and steps it, either from update or on its own
+    // thread
+    private ArmControlLoop controlLoop;
     private PIDConstants pidConstants;
-    private final int TOLERANCE_IN_DEGREES = 3;
+    public static final int TOLERANCE_IN_DEGREES = 3;
+
+    // outputs a transition's steps can require, as bits
+    public static final int ARM_MOTOR = 1;
+    public static final int CARGO_INTAKE = 1 << 1;
+    public static final int HATCH_OUTTAKE = 1 << 2;
+    public static final int CARGO_LAUNCHER = 1 << 3;
+
+    // Motion profiling
+    // output to hold the arm horizontal, and per degree/s of velocity
+    private final double GRAVITY_FEEDFORWARD = 0.22;
+    private final double VELOCITY_FEEDFORWARD = 1.0 / 540;
+    private final double MAX_VELOCITY = 450;
+    private final double MAX_ACCELERATION = 2500;
+    private ArmProfileTable profiles;
+    // allowance on top of each profile for the arm to settle, for moves the
+    // planner hasn't measured yet
+    private final double SETTLE_SECONDS = 0.1;
+    // picks the fastest route between states from measured move times
+    private ArmTransitionPlanner planner;
+    private boolean useMotionProfiles = true;
+
+    private double targetAngle;
+    // state of the last move that reached its target
+    private State settledState;
 
     private State currentState;
+    // command graphs are built once in init and re-armed on every transition
+    private EnumMap<State, ReusableCommand> transitions;
+    // the same transitions with independent steps overlapped
+    private EnumMap<State, ReusableCommand> pipelinedTransitions;
+    private boolean pipelineTransitions = true;
+    private ReusableCommand activeTransition;
+    // every name the active command can have, for telemetry, with "none" first
+    private String[] commandNames;
+    private HashMap<String, Integer> commandOrdinals;
+    // runs what is left of earlier transitions alongside the latest one, as
+    // long as they drive different outputs; room for every transition of
+    // both kinds
+    private ResourceScheduler transitionScheduler = new ResourceScheduler(2 * State.values().length);
+
+    // how far from its angle the arm starts spinning the intake up for cargo
+    private final double INTAKE_PRESPIN_DEGREES = 20;
+    // how far from store the cargo launcher may start handing cargo off
+    private final double HANDOFF_DEGREES = 10;
+    // how far from outtake the cargo launcher may extend
+    private final double LAUNCHER_PREP_DEGREES = 15;
 
     // output
     private DigitalOut hatchOuttake;
@@ -39,6 +103,9 @@ public class Arm extends Subsystem
     private DigitalIn cargoIntakeBeamBreak;
     private RangeIn<Position> armAngle;
 
+    // time source for the waits in each sequence
+    private Clock clock;
+
     /**
      * 
      * @param hatchOuttake
@@ -56,9 +123,11 @@ public class Arm extends Subsystem
      *                                 it detects)
      * @param armAngle
      *                                 gives angle of the arm in degrees
+     * @param clock
+     *                                 time source for timed steps
      */
     public Arm(DigitalOut hatchOuttake, DigitalOut cargoLauncher, RangeOut<Percent> cargoIntake, RangeOut<Percent> arm,
-            DigitalIn cargoIntakeBeamBreak, RangeIn<Position> armAngle)
+            DigitalIn cargoIntakeBeamBreak, RangeIn<Position> armAngle, Clock clock)
     {
         this.hatchOuttake = hatchOuttake;
         this.cargoLauncher = cargoLauncher;
@@ -66,24 +135,41 @@ public class Arm extends Subsystem
         this.arm = arm;
         this.cargoIntakeBeamBreak = cargoIntakeBeamBreak;
         this.armAngle = armAngle;
+        this.clock = clock;
+    }
 
+    /**
+     * creates an arm that times its steps with the wall clock
+     * 
+     * @see #Arm(DigitalOut, DigitalOut, RangeOut, RangeOut, DigitalIn, RangeIn,
+     *      Clock)
+     */
+    public Arm(DigitalOut hatchOuttake, DigitalOut cargoLauncher, RangeOut<Percent> cargoIntake, RangeOut<Percent> arm,
+            DigitalIn cargoIntakeBeamBreak, RangeIn<Position> armAngle)
+    {
+        this(hatchOuttake, cargoLauncher, cargoIntake, arm, cargoIntakeBeamBreak, armAngle, Clock.SYSTEM);
     }
 
     @Override
     public void init()
     {
         pidConstants = new PIDConstants(0.01, 0, 0);
-        controller = new SynchronousPIDController<Percent, Position>(pidConstants, armAngle, arm);
-        controller.setInputRange(-15, 115);
+        controlLoop = new ArmControlLoop(pidConstants, armAngle, arm, GRAVITY_FEEDFORWARD, VELOCITY_FEEDFORWARD,
+                new TrapezoidProfile(MAX_VELOCITY, MAX_ACCELERATION), clock);
+        controlLoop.setInputRange(-15, 115);
+        profiles = new ArmProfileTable(MAX_VELOCITY, MAX_ACCELERATION);
+        planner = new ArmTransitionPlanner(profiles, SETTLE_SECONDS);
+        buildTransitions();
         currentState = State.STORE_CARGO;
+        settledState = State.STORE_CARGO;
         enterState(currentState);
     }
 
     @Override
     public void update()
     {
-        // I don't think I have to update the pid controller seperately
-        scheduler.update();
+        // the active move command steps or feeds the pid loop
+        transitionScheduler.update();
     }
 
     public enum State
@@ -101,74 +187,201 @@ public class Arm extends Subsystem
             this.angle = angle;
             this.name = name;
         }
+
+        public double getAngle()
+        {
+            return angle;
+        }
     }
 
     // Probably need wait times before outtaking for most of these
-    // if we want to be more efficient we can string
+    // Only steps of earlier transitions that drive the outputs the new one
+    // needs are stopped; anything else they were already doing finishes
     public void enterState(State desiredState)
     {
-        reset();
-        switch (desiredState)
+        currentState = desiredState;
+        activeTransition = (pipelineTransitions ? pipelinedTransitions : transitions).get(desiredState);
+        transitionScheduler.schedule(activeTransition);
+    }
+
+    /**
+     * builds the command graph for every state once, so entering a state only
+     * has to re-arm an existing graph
+     */
+    private void buildTransitions()
+    {
+        transitions = new EnumMap<>(State.class);
+        transitions.put(State.INTAKE_HATCH_FROM_GROUND, new ReusableSequence(
+                State.INTAKE_HATCH_FROM_GROUND.name,
+                new ReusableSequence("move & ground intake hatch", extendHatchPistonsCommand(false),
+                        moveToCommand(State.INTAKE_HATCH_FROM_GROUND), holdCommand(2)),
+                // auto schedules to outtake because that's only next option
+                goToOuttakeHatchCommand()));
+        transitions.put(State.INTAKE_HATCH_FROM_FEEDER, new ReusableSequence(
+                State.INTAKE_HATCH_FROM_FEEDER.name,
+                new ReusableSequence("move & feeder intake hatch", extendHatchPistonsCommand(false),
+                        moveToCommand(State.INTAKE_HATCH_FROM_FEEDER), holdCommand(5)),
+                // auto schedules to outtake because that's only next option
+                goToOuttakeHatchCommand()));
+        transitions.put(State.INTAKE_CARGO_FROM_GROUND, new ReusableSequence(
+                State.INTAKE_CARGO_FROM_GROUND.name,
+                new ReusableSequence("move and intake cargo", extendHatchPistonsCommand(false),
+                        extendCargoPistonsCommand(false), moveToCommand(State.INTAKE_CARGO_FROM_GROUND),
+                        intakeCargoCommand()),
+                goToStoreCargo()));
+        transitions.put(State.OUTTAKE_CARGO, new ReusableSequence(State.OUTTAKE_CARGO.name,
+                new ReusableSequence("move and outtake cargo", moveToCommand(State.OUTTAKE_CARGO),
+                        extendCargoPistonsCommand(true), outtakeCargoCommand()),
+                goToStoreCargo()));
+        transitions.put(State.OUTTAKE_HATCH, new ReusableSequence(State.OUTTAKE_HATCH.name,
+                new ReusableSequence("move and outtake hatch", goToOuttakeHatchCommand(),
+                        extendHatchPistonsCommand(true)),
+                goToStoreCargo()));
+        transitions.put(State.CLIMBING,
+                new ReusableSequence(State.CLIMBING.name, moveToCommand(State.CLIMBING), goToStoreCargo()));
+        transitions.put(State.STORE_CARGO, new ReusableSequence(State.STORE_CARGO.name,
+                new ReusableSequence("store cargo", moveToCommand(State.STORE_CARGO), outtakeCargoCommand())));
+        buildPipelinedTransitions();
+
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        names.add("none");
+        for (State state : State.values())
         {
-        case INTAKE_HATCH_FROM_GROUND:
-            controller.setSetpoint(State.INTAKE_HATCH_FROM_GROUND.angle);
-            Command hatchFromGround = CommandUtil
-                    .combineSequential(extendHatchPistonsCommand(false),
-                            controller.getPIDToCommand(TOLERANCE_IN_DEGREES), new WaitTimeCommand(2))
-                    .setName("move & ground intake hatch");
-            scheduler.schedule(hatchFromGround);
-            // auto schedules to outtake because that's only next option
-            scheduler.schedule(goToOuttakeHatchCommand());
-            break;
-        case INTAKE_HATCH_FROM_FEEDER:
-            controller.setSetpoint(State.INTAKE_HATCH_FROM_FEEDER.angle);
-            Command hatchFromFeeder = CommandUtil
-                    .combineSequential(extendHatchPistonsCommand(false),
-                            controller.getPIDToCommand(TOLERANCE_IN_DEGREES), new WaitTimeCommand(5))
-                    .setName("move & feeder intake hatch");
-            scheduler.schedule(hatchFromFeeder);
-            // auto schedules to outtake because that's only next option
-            scheduler.schedule(goToOuttakeHatchCommand());
-            break;
-        case INTAKE_CARGO_FROM_GROUND:
-            controller.setSetpoint(State.INTAKE_CARGO_FROM_GROUND.angle);
-            Command cargoPickUp = CommandUtil
-                    .combineSequential(extendHatchPistonsCommand(false), extendCargoPistonsCommand(false),
-                            controller.getPIDToCommand(TOLERANCE_IN_DEGREES), intakeCargoCommand())
-                    .setName("move and intake cargo");
-            scheduler.schedule(cargoPickUp);
-            scheduler.schedule(goToStoreCargo());
-            break;
-
-        case OUTTAKE_CARGO:
-            controller.setSetpoint(State.OUTTAKE_CARGO.angle);
-            Command outtakeCargo = CommandUtil.combineSequential(controller.getPIDToCommand(TOLERANCE_IN_DEGREES),
-                    extendCargoPistonsCommand(true), outtakeCargoCommand()).setName("move and outtake cargo");
-            scheduler.schedule(outtakeCargo);
-            scheduler.schedule(goToStoreCargo());
-
-            break;
-        case OUTTAKE_HATCH:
-            Command outtakeHatch = CommandUtil
-                    .combineSequential(goToOuttakeHatchCommand(), extendHatchPistonsCommand(true))
-                    .setName("move and outtake hatch");
-            scheduler.schedule(outtakeHatch);
-            scheduler.schedule(goToStoreCargo());
-            break;
-        case CLIMBING:
-            controller.setSetpoint(State.CLIMBING.angle);
-            Command goToClimbing = controller.getPIDToCommand(TOLERANCE_IN_DEGREES);
-            scheduler.schedule(goToClimbing);
-            scheduler.schedule(goToStoreCargo());
-            break;
-        case STORE_CARGO:
-            Command storeCargo = CommandUtil
-                    .combineSequential(CommandUtil.createCommand(() -> controller.setSetpoint(State.STORE_CARGO.angle)),
-                            controller.getPIDToCommand(TOLERANCE_IN_DEGREES), outtakeCargoCommand())
-                    .setName("store cargo");
-            scheduler.schedule(storeCargo);
-            break;
+            names.addAll(transitions.get(state).getNames(new AddList<>()));
+            names.addAll(pipelinedTransitions.get(state).getNames(new AddList<>()));
         }
+        commandNames = names.toArray(new String[0]);
+        commandOrdinals = new HashMap<>();
+        for (int i = 0; i < commandNames.length; i++)
+        {
+            commandOrdinals.put(commandNames[i], i);
+        }
+    }
+
+    /**
+     * builds each transition as a graph of the same steps, where pistons move
+     * while the arm travels, the intake spins up before the arm gets there,
+     * and the next move starts as soon as the step it waits on is done
+     */
+    private void buildPipelinedTransitions()
+    {
+        pipelinedTransitions = new EnumMap<>(State.class);
+        pipelinedTransitions.put(State.INTAKE_HATCH_FROM_GROUND,
+                intakeHatchGraph(State.INTAKE_HATCH_FROM_GROUND, 2));
+        pipelinedTransitions.put(State.INTAKE_HATCH_FROM_FEEDER,
+                intakeHatchGraph(State.INTAKE_HATCH_FROM_FEEDER, 5));
+
+        ReusableGraph intakeCargo = new ReusableGraph(State.INTAKE_CARGO_FROM_GROUND.name);
+        intakeCargo.add(extendHatchPistonsCommand(false));
+        intakeCargo.add(extendCargoPistonsCommand(false));
+        int down = intakeCargo.add(moveToCommand(State.INTAKE_CARGO_FROM_GROUND));
+        int intake = intakeCargo.add(intakeCargoCommand(),
+                near(State.INTAKE_CARGO_FROM_GROUND, INTAKE_PRESPIN_DEGREES));
+        // once the cargo is in there's no need to finish going down
+        int up = intakeCargo.add(moveToCommand(State.STORE_CARGO), intake);
+        intakeCargo.interrupts(up, down);
+        pipelinedTransitions.put(State.INTAKE_CARGO_FROM_GROUND, intakeCargo);
+
+        ReusableGraph outtakeCargo = new ReusableGraph(State.OUTTAKE_CARGO.name);
+        int move = outtakeCargo.add(moveToCommand(State.OUTTAKE_CARGO));
+        int launcher = outtakeCargo.add(extendCargoPistonsCommand(true),
+                near(State.OUTTAKE_CARGO, LAUNCHER_PREP_DEGREES));
+        int outtake = outtakeCargo.add(outtakeCargoCommand(), move, launcher);
+        outtakeCargo.add(moveToCommand(State.STORE_CARGO), outtake);
+        pipelinedTransitions.put(State.OUTTAKE_CARGO, outtakeCargo);
+
+        pipelinedTransitions.put(State.OUTTAKE_HATCH, transitions.get(State.OUTTAKE_HATCH));
+        pipelinedTransitions.put(State.CLIMBING, transitions.get(State.CLIMBING));
+
+        ReusableGraph storeCargo = new ReusableGraph(State.STORE_CARGO.name);
+        storeCargo.add(moveToCommand(State.STORE_CARGO));
+        storeCargo.add(outtakeCargoCommand(), near(State.STORE_CARGO, HANDOFF_DEGREES));
+        pipelinedTransitions.put(State.STORE_CARGO, storeCargo);
+    }
+
+    private ReusableGraph intakeHatchGraph(State state, double waitSeconds)
+    {
+        ReusableGraph graph = new ReusableGraph(state.name);
+        graph.add(extendHatchPistonsCommand(false));
+        int move = graph.add(moveToCommand(state));
+        int wait = graph.add(holdCommand(waitSeconds), move);
+        // auto schedules to outtake because that's only next option
+        graph.add(goToOuttakeHatchCommand(), wait);
+        return graph;
+    }
+
+    private BooleanSupplier near(State state, double degrees)
+    {
+        return () -> Math.abs(armAngle.get() - state.angle) <= degrees;
+    }
+
+    /**
+     * moves the arm's pid step onto its own thread, decoupled from the main
+     * loop. Call after init
+     * 
+     * @param hz
+     *               rate to step the pid controller at
+     */
+    public void runControlLoopAt(double hz)
+    {
+        controlLoop.runThreaded(hz);
+    }
+
+    /**
+     * @param pipelineTransitions
+     *                                if false, every step of a transition
+     *                                waits for the one before it. Takes
+     *                                effect on the next state entered
+     */
+    public void setPipelineTransitions(boolean pipelineTransitions)
+    {
+        this.pipelineTransitions = pipelineTransitions;
+    }
+
+    /**
+     * @param useMotionProfiles
+     *                              if false, moves jump straight to a step
+     *                              setpoint with no feedforward
+     */
+    public void setUseMotionProfiles(boolean useMotionProfiles)
+    {
+        this.useMotionProfiles = useMotionProfiles;
+    }
+
+    /**
+     * @return whether the arm is still carrying out its last state change,
+     *         including one entered but not yet updated
+     */
+    public boolean isTransitionRunning()
+    {
+        return activeTransition != null && !activeTransition.isFinished();
+    }
+
+    /**
+     * @return measured move times and the routes planned from them. Only
+     *         exists after init
+     */
+    public ArmTransitionPlanner getTransitionPlanner()
+    {
+        return planner;
+    }
+
+    /**
+     * @return how many earlier transitions have had steps stopped by a later
+     *         one
+     */
+    public long getPreemptedCount()
+    {
+        return transitionScheduler.getPreempted();
+    }
+
+    /**
+     * @return how many transitions were stopped outright, by being entered
+     *         again or by {@link #reset()}
+     */
+    public long getInterruptedCount()
+    {
+        return transitionScheduler.getInterrupted();
     }
 
     public String getCurrentStateName()
@@ -176,9 +389,12 @@ public class Arm extends Subsystem
         return currentState.name;
     }
 
+    /**
+     * stops every transition, including what is left of earlier ones
+     */
     public void reset()
     {
-        scheduler.cancelAll();
+        transitionScheduler.cancelAll();
         arm.set(0);
         cargoIntake.set(0);
     }
@@ -192,72 +408,227 @@ public class Arm extends Subsystem
     @Override
     public AddList<Watchable> getSubWatchables(AddList<Watchable> arg0)
     {
-        return arg0.put(new StringInfo("arm state", () -> currentState.name), scheduler);
+        return arg0.put(new StringInfo("arm state", () -> currentState.name),
+                new StringInfo("arm command", this::getActiveCommandName), controlLoop,
+                new NumberInfo("preempted", transitionScheduler::getPreempted),
+                new NumberInfo("interrupted", transitionScheduler::getInterrupted));
+    }
+
+    /**
+     * @return the name of the step the arm is currently running
+     */
+    public String getActiveCommandName()
+    {
+        return activeTransition == null ? "none" : activeTransition.getActiveName();
     }
 
-    private Command goToStoreCargo()
+    /**
+     * starts moving to a state, following the precomputed profile from the
+     * last state the arm settled at. Only plans a new profile if the arm isn't
+     * where that state says it should be, e.g. after an interrupted move
+     */
+    private void setTarget(State target)
     {
-        return CommandUtil
-                .combineSequential(CommandUtil.createCommand(() -> controller.setSetpoint(State.STORE_CARGO.angle)),
-                        controller.getPIDToCommand(TOLERANCE_IN_DEGREES))
-                .setName("go to store cargo");
+        targetAngle = target.angle;
+        if (!useMotionProfiles)
+        {
+            controlLoop.setSetpoint(targetAngle);
+        }
+        else if (Math.abs(armAngle.get() - settledState.angle) <= TOLERANCE_IN_DEGREES)
+        {
+            controlLoop.follow(profiles.get(settledState, target));
+        }
+        else
+        {
+            controlLoop.follow(armAngle.get(), targetAngle);
+        }
     }
 
-    private Command goToOuttakeHatchCommand()
+    private boolean onTarget()
     {
-        return CommandUtil
-                .combineSequential(CommandUtil.createCommand(() -> controller.setSetpoint(State.OUTTAKE_HATCH.angle)),
-                        controller.getPIDToCommand(TOLERANCE_IN_DEGREES))
-                .setName("go to outtake hatch");
+        return Math.abs(armAngle.get() - targetAngle) <= TOLERANCE_IN_DEGREES;
     }
 
-    private Command extendHatchPistonsCommand(boolean extend)
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
     {
-        return CommandUtil.createCommand(() -> hatchOuttake.set(extend)).setName("extend hatch piston");
+        controlLoop.getTelemetryChannels(stem);
+        return stem.put(TelemetryChannel.number("arm/angle", armAngle::get),
+                TelemetryChannel.number("arm/target", () -> targetAngle),
+                TelemetryChannel.enumeration("arm/state", State.class, () -> currentState.ordinal()),
+                TelemetryChannel.bool("arm/transition running", this::isTransitionRunning),
+                TelemetryChannel.enumeration("arm/command", commandNames,
+                        () -> commandOrdinals.getOrDefault(getActiveCommandName(), 0)).atRate(Rate.TEN_HZ),
+                TelemetryChannel.bool("arm/cargo beam break", cargoIntakeBeamBreak::get),
+                TelemetryChannel.bool("arm/hatch outtake", hatchOuttake::getAsBoolean),
+                TelemetryChannel.bool("arm/cargo launcher", cargoLauncher::getAsBoolean),
+                TelemetryChannel.number("arm/preempted", transitionScheduler::getPreempted).atRate(Rate.ONE_HZ),
+                TelemetryChannel.number("arm/interrupted", transitionScheduler::getInterrupted)
+                        .atRate(Rate.ONE_HZ));
     }
 
-    private Command extendCargoPistonsCommand(boolean extend)
+    private ReusableCommand moveToCommand(State target)
     {
-        return CommandUtil.createCommand(() -> cargoLauncher.set(extend)).setName("extend cargo piston");
+        return new MoveCommand(target).requiring(ARM_MOTOR);
     }
 
-    private Command intakeCargoCommand()
+    /**
+     * moves the arm to a state along the fastest route the planner knows,
+     * timing each move that starts from a settled state so the planner
+     * learns from it. Finishes straight away if the arm is already there
+     */
+    private class MoveCommand extends ReusableCommand
     {
-        return new Command()
+        private final State target;
+        private final State[] route = new State[State.values().length];
+        private int moves;
+        private int move;
+        // settled state the current move started from, if it started settled
+        private State moveStart;
+        private double moveStartTime;
+
+        MoveCommand(State target)
         {
-            @Override
-            protected boolean execute()
+            super("move to " + target.name);
+            this.target = target;
+        }
+
+        @Override
+        protected void initialize()
+        {
+            double angle = armAngle.get();
+            if (Math.abs(angle - target.angle) <= TOLERANCE_IN_DEGREES)
             {
-                cargoIntake.set(-1);
-                return cargoIntakeBeamBreak.get();
+                moves = 0;
             }
-
-            @Override
-            protected void done()
+            else if (Math.abs(angle - settledState.angle) <= TOLERANCE_IN_DEGREES)
             {
-                cargoIntake.set(0);
+                moves = planner.plan(settledState, target, route);
             }
+            else
+            {
+                // stopped part way through a move; the costs only cover moves
+                // between states, so go direct
+                route[0] = target;
+                moves = 1;
+            }
+            move = 0;
+            startMove();
+        }
 
-        }.setName("intake cargo");
-    }
-
-    private Command outtakeCargoCommand()
-    {
-        return new Command()
+        @Override
+        protected boolean execute()
         {
-            @Override
-            protected boolean execute()
+            if (move == moves)
+            {
+                return true;
+            }
+            if (controlLoop.isThreaded())
+            {
+                if (!controlLoop.isEnabled())
+                {
+                    // the feed timeout stopped the motor while the main loop
+                    // stalled. Pick the move back up, without recording a
+                    // time that includes the stall
+                    moveStart = null;
+                    controlLoop.enable();
+                }
+                controlLoop.feed();
+            }
+            else
             {
-                cargoIntake.set(1);
-                return !cargoIntakeBeamBreak.get();
+                controlLoop.step();
             }
+            if (onTarget())
+            {
+                if (moveStart != null)
+                {
+                    planner.record(moveStart, route[move], clock.getSeconds() - moveStartTime);
+                }
+                settledState = route[move];
+                move++;
+                startMove();
+            }
+            return move == moves;
+        }
 
-            @Override
-            protected void done()
+        /**
+         * starts the next move that isn't already done, or settles at the
+         * target if there is none
+         */
+        private void startMove()
+        {
+            while (move < moves && Math.abs(armAngle.get() - route[move].angle) <= TOLERANCE_IN_DEGREES)
             {
-                cargoIntake.set(0);
+                settledState = route[move];
+                move++;
             }
-        }.setName("outtake cargo");
+            if (move == moves)
+            {
+                settledState = target;
+                targetAngle = target.angle;
+                controlLoop.disable();
+                return;
+            }
+            moveStart = Math.abs(armAngle.get() - settledState.angle) <= TOLERANCE_IN_DEGREES ? settledState
+                    : null;
+            moveStartTime = clock.getSeconds();
+            setTarget(route[move]);
+            controlLoop.enable();
+        }
+
+        @Override
+        protected void done()
+        {
+            controlLoop.disable();
+        }
+    }
+
+    private ReusableCommand goToStoreCargo()
+    {
+        return new ReusableSequence("go to store cargo", moveToCommand(State.STORE_CARGO));
+    }
+
+    private ReusableCommand goToOuttakeHatchCommand()
+    {
+        return new ReusableSequence("go to outtake hatch", moveToCommand(State.OUTTAKE_HATCH));
+    }
+
+    /**
+     * keeps the arm where it is for a while, e.g. for the driver to pick up a
+     * hatch
+     */
+    private ReusableCommand holdCommand(double seconds)
+    {
+        return new WaitCommand(seconds, clock).requiring(ARM_MOTOR);
+    }
+
+    private ReusableCommand extendHatchPistonsCommand(boolean extend)
+    {
+        return new RunOnceCommand("extend hatch piston", () -> hatchOuttake.set(extend)).requiring(HATCH_OUTTAKE);
+    }
+
+    private ReusableCommand extendCargoPistonsCommand(boolean extend)
+    {
+        return new RunOnceCommand("extend cargo piston", () -> cargoLauncher.set(extend)).requiring(CARGO_LAUNCHER);
     }
 
-}
\ No newline at end of file
+    // cargo only comes in with the arm down, so moving the arm stops intaking
+    private ReusableCommand intakeCargoCommand()
+    {
+        return new RunUntilCommand("intake cargo", () -> cargoIntake.set(-1), cargoIntakeBeamBreak::get,
+                () -> cargoIntake.set(0)).requiring(CARGO_INTAKE | ARM_MOTOR);
+    }
+
+    private ReusableCommand outtakeCargoCommand()
+    {
+        return new RunUntilCommand("outtake cargo", () -> cargoIntake.set(1), () -> !cargoIntakeBeamBreak.get(),
+                () -> cargoIntake.set(0)).requiring(CARGO_INTAKE);
+    }
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return stem.put(hatchOuttake, cargoLauncher, cargoIntake, arm);
+    }
+}
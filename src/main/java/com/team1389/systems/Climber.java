@@ -1,17 +1,22 @@
 package com.team1389.systems;
 
-import com.team1389.auto.command.WaitTimeCommand;
 import com.team1389.command_framework.CommandUtil;
 import com.team1389.command_framework.command_base.Command;
+import com.team1389.commands.Clock;
+import com.team1389.commands.ClockWaitCommand;
 import com.team1389.hardware.inputs.software.DigitalIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
 import com.team1389.hardware.outputs.software.PercentOut;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
 import com.team1389.watch.info.BooleanInfo;
 
-public class Climber extends Subsystem
+public class Climber extends Subsystem implements TelemetrySource, OutputOwner
 {
     //Output
     private PercentOut wheelVoltage;
@@ -20,6 +25,8 @@ public class Climber extends Subsystem
     private DigitalIn bumpSwitch;
     //Controls
     private DigitalIn toggleLift;
+    //Time source for the wait before driving forwards
+    private Clock clock;
 
     /**
      * @param liftPiston Lifts robot off the ground
@@ -29,14 +36,23 @@ public class Climber extends Subsystem
      * @param bumpSwitch Detects if robot is in back and climber should be retracted
      * 
      * @param toggleLift Extends and retracts piston
+     * 
+     * @param clock Time source for timed steps
      */
 
-    public Climber(DigitalOut liftPiston, PercentOut wheelVoltage, DigitalIn bumpSwitch, DigitalIn toggleLift)
+    public Climber(DigitalOut liftPiston, PercentOut wheelVoltage, DigitalIn bumpSwitch, DigitalIn toggleLift,
+            Clock clock)
     {
         this.wheelVoltage = wheelVoltage;
         this.liftPiston = liftPiston;
         this.bumpSwitch = bumpSwitch;
         this.toggleLift = toggleLift;
+        this.clock = clock;
+    }
+
+    public Climber(DigitalOut liftPiston, PercentOut wheelVoltage, DigitalIn bumpSwitch, DigitalIn toggleLift)
+    {
+        this(liftPiston, wheelVoltage, bumpSwitch, toggleLift, Clock.SYSTEM);
     }
 
     public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
@@ -44,6 +60,14 @@ public class Climber extends Subsystem
         return stem.put(scheduler, new BooleanInfo("switch", this::switchBumped));
     }
 
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.bool("climber/lift piston", liftPiston::getAsBoolean),
+                TelemetryChannel.bool("climber/bump switch", this::switchBumped),
+                TelemetryChannel.bool("climber/toggle lift", toggleLift::get),
+                TelemetryChannel.bool("climber/climb running", () -> !scheduler.isFinished()).atRate(Rate.TEN_HZ));
+    }
+
     @Override
     public String getName()
     {
@@ -80,7 +104,7 @@ public class Climber extends Subsystem
     }
     public Command climbandGoForwards()
     {
-        return CommandUtil.combineSequential(climbCommand(), new WaitTimeCommand(5), goForwardsCommand());
+        return CommandUtil.combineSequential(climbCommand(), new ClockWaitCommand(5, clock), goForwardsCommand());
     }
     public void climb()
     {
@@ -126,4 +150,10 @@ public class Climber extends Subsystem
     {
         return CommandUtil.createCommand(this::autoRetract);
     }
-}
\ No newline at end of file
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return stem.put(liftPiston, wheelVoltage);
+    }
+}
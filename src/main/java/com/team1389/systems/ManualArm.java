@@ -5,6 +5,7 @@ import com.team1389.hardware.inputs.software.RangeIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
 import com.team1389.hardware.outputs.software.RangeOut;
 import com.team1389.hardware.value_types.Percent;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
@@ -13,7 +14,7 @@ import com.team1389.watch.Watchable;
  * Allows for manual control of arm, cargo intake, & hatch intake with or
  * without beam break
  */
-public class ManualArm extends Subsystem
+public class ManualArm extends Subsystem implements OutputOwner
 {
 
     // output
@@ -151,7 +152,10 @@ public class ManualArm extends Subsystem
             cargoLauncher.set(true);
             cargoIntake.set(-1);
         }
-        cargoIntake.set(0);
+        else
+        {
+            cargoIntake.set(0);
+        }
     }
 
     private void updateCargoWithoutBeamBreak()
@@ -168,6 +172,15 @@ public class ManualArm extends Subsystem
             cargoLauncher.set(true);
             cargoIntake.set(-1);
         }
-        cargoIntake.set(0);
+        else
+        {
+            cargoIntake.set(0);
+        }
+    }
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return stem.put(hatchOuttake, cargoLauncher, cargoIntake, arm);
     }
-}
\ No newline at end of file
+}
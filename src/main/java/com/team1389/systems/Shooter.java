@@ -1,15 +1,20 @@
 package com.team1389.systems;
 
-import com.team1389.auto.command.WaitTimeCommand;
 import com.team1389.command_framework.CommandUtil;
 import com.team1389.command_framework.command_base.Command;
+import com.team1389.commands.Clock;
+import com.team1389.commands.ClockWaitCommand;
 import com.team1389.hardware.inputs.software.DigitalIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
 
-public class Shooter extends Subsystem
+public class Shooter extends Subsystem implements TelemetrySource, OutputOwner
 {
    
     //Output
@@ -19,6 +24,8 @@ public class Shooter extends Subsystem
     private DigitalIn hasCargo;
     //Constants
     private final int WAIT_UNTIL_EXTENDED = 1;
+    //Time source for the wait between shooting and resetting
+    private Clock clock;
 
     /**
      * @param rightShooter Piston for shooting ball to the right
@@ -26,14 +33,22 @@ public class Shooter extends Subsystem
      * @param leftShooter Piston for shooting ball to the left
      * 
      * @param hasCargo Beam break checking whether there is a ball in the shooter or not
+     * 
+     * @param clock Time source for timed steps
      */
 
     
-    public Shooter(DigitalOut rightShooter, DigitalOut leftShooter, DigitalIn hasCargo)
+    public Shooter(DigitalOut rightShooter, DigitalOut leftShooter, DigitalIn hasCargo, Clock clock)
     {
         this.rightShooter = rightShooter;
         this.leftShooter = leftShooter;
         this.hasCargo = hasCargo;
+        this.clock = clock;
+    }
+
+    public Shooter(DigitalOut rightShooter, DigitalOut leftShooter, DigitalIn hasCargo)
+    {
+        this(rightShooter, leftShooter, hasCargo, Clock.SYSTEM);
     }
 
     public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
@@ -41,6 +56,14 @@ public class Shooter extends Subsystem
         return stem.put(scheduler, hasCargo.getWatchable("hasCargo"));
     }
 
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.bool("shooter/has cargo", hasCargo::get),
+                TelemetryChannel.bool("shooter/right", rightShooter::getAsBoolean),
+                TelemetryChannel.bool("shooter/left", leftShooter::getAsBoolean),
+                TelemetryChannel.bool("shooter/shot running", () -> !scheduler.isFinished()).atRate(Rate.TEN_HZ));
+    }
+
     @Override
     public String getName()
     {
@@ -101,7 +124,7 @@ public class Shooter extends Subsystem
 
     private Command shootRightReset()
     {
-        return CommandUtil.combineSequential(shootRightCommand(), new WaitTimeCommand(WAIT_UNTIL_EXTENDED), resetShootersCommand());
+        return CommandUtil.combineSequential(shootRightCommand(), new ClockWaitCommand(WAIT_UNTIL_EXTENDED, clock), resetShootersCommand());
         
     }
 
@@ -112,11 +135,17 @@ public class Shooter extends Subsystem
 
     private Command shootLeftReset()
     {
-        return CommandUtil.combineSequential(shootLeftCommand(), new WaitTimeCommand(WAIT_UNTIL_EXTENDED), resetShootersCommand());
+        return CommandUtil.combineSequential(shootLeftCommand(), new ClockWaitCommand(WAIT_UNTIL_EXTENDED, clock), resetShootersCommand());
     }
 
     public void shootLeft()
     {
         scheduler.schedule(shootLeftReset());
     }
-}
\ No newline at end of file
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return stem.put(rightShooter, leftShooter);
+    }
+}
@@ -1,17 +1,26 @@
 package com.team1389.systems;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.team1389.commands.Clock;
+import com.team1389.control.ArmTransitionPlanner;
 import com.team1389.hardware.inputs.software.DigitalIn;
 import com.team1389.hardware.inputs.software.RangeIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
 import com.team1389.hardware.outputs.software.RangeOut;
 import com.team1389.hardware.value_types.Percent;
 import com.team1389.hardware.value_types.Position;
+import com.team1389.input.ButtonEventBus;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetrySource;
 import com.team1389.systems.Arm.State;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
 
-public class TeleopArm extends Subsystem
+public class TeleopArm extends Subsystem implements TelemetrySource, OutputOwner
 {
     // output
     private DigitalOut hatchOuttake;
@@ -35,13 +44,22 @@ public class TeleopArm extends Subsystem
     private DigitalIn storeCargoBtn;
 
     private DigitalIn toggleManualModeBtn;
+    // fires each arm state transition once per press
+    private ButtonEventBus armButtons;
 
     // config
     private boolean useBeamBreakInManual = true;
     private final boolean USE_MANUAL = false;
+    private final int BUTTON_DEBOUNCE_LOOPS = 2;
+    // rate of the arm's own pid thread; 0 steps it from the main loop instead
+    private double armControlHz = 200;
+    // where measured arm move times are kept between reboots; null keeps
+    // them in memory only
+    private Path transitionCostFile;
     private DigitalIn currentlyInManual;
     private Arm armSystem;
     private ManualArm manualArmSystem;
+    private Clock clock;
 
     /**
      * 
@@ -84,18 +102,21 @@ public class TeleopArm extends Subsystem
      * @param useBeamBreakInManual
      *                                 toggle for whether or not to use the beam
      *                                 break in manual mode
+     * @param clock
+     *                                 time source for timed arm steps
      */
     public TeleopArm(DigitalOut hatchOuttake, DigitalOut cargoLauncher, RangeOut<Percent> cargoIntake,
             RangeOut<Percent> arm, DigitalIn cargoIntakeBeamBreak, RangeIn<Position> armAngle, RangeIn<Percent> armAxis,
             DigitalIn outtakeHatchBtn, DigitalIn intakeHatchGroundBtn, DigitalIn intakeHatchFeederBtn,
             DigitalIn outtakeCargoBtn, DigitalIn intakeCargoBtn, DigitalIn prepForClimbBtn, DigitalIn storeCargoBtn,
-            DigitalIn toggleManualModeBtn, boolean useBeamBreakInManual)
+            DigitalIn toggleManualModeBtn, boolean useBeamBreakInManual, Clock clock)
     {
         this.hatchOuttake = hatchOuttake;
         this.cargoLauncher = cargoLauncher;
         this.cargoIntake = cargoIntake;
         this.arm = arm;
         this.cargoIntakeBeamBreak = cargoIntakeBeamBreak;
+        this.armAngle = armAngle;
         this.armAxis = armAxis;
         this.outtakeHatchBtn = outtakeHatchBtn;
         this.intakeHatchGroundBtn = intakeHatchGroundBtn;
@@ -106,22 +127,101 @@ public class TeleopArm extends Subsystem
         this.storeCargoBtn = storeCargoBtn;
         this.toggleManualModeBtn = toggleManualModeBtn;
         this.useBeamBreakInManual = useBeamBreakInManual;
+        this.clock = clock;
+    }
 
+    public TeleopArm(DigitalOut hatchOuttake, DigitalOut cargoLauncher, RangeOut<Percent> cargoIntake,
+            RangeOut<Percent> arm, DigitalIn cargoIntakeBeamBreak, RangeIn<Position> armAngle, RangeIn<Percent> armAxis,
+            DigitalIn outtakeHatchBtn, DigitalIn intakeHatchGroundBtn, DigitalIn intakeHatchFeederBtn,
+            DigitalIn outtakeCargoBtn, DigitalIn intakeCargoBtn, DigitalIn prepForClimbBtn, DigitalIn storeCargoBtn,
+            DigitalIn toggleManualModeBtn, boolean useBeamBreakInManual)
+    {
+        this(hatchOuttake, cargoLauncher, cargoIntake, arm, cargoIntakeBeamBreak, armAngle, armAxis, outtakeHatchBtn,
+                intakeHatchGroundBtn, intakeHatchFeederBtn, outtakeCargoBtn, intakeCargoBtn, prepForClimbBtn,
+                storeCargoBtn, toggleManualModeBtn, useBeamBreakInManual, Clock.SYSTEM);
     }
 
     @Override
     public void init()
     {
-        armSystem = new Arm(hatchOuttake, cargoLauncher, cargoIntake, arm, cargoIntakeBeamBreak, armAngle);
+        armSystem = new Arm(hatchOuttake, cargoLauncher, cargoIntake, arm, cargoIntakeBeamBreak, armAngle, clock);
         manualArmSystem = new ManualArm(hatchOuttake, cargoLauncher, cargoIntake, arm, cargoIntakeBeamBreak, armAxis,
                 outtakeHatchBtn, intakeCargoBtn, outtakeCargoBtn, useBeamBreakInManual);
+        armSystem.init();
+        manualArmSystem.init();
+        if (transitionCostFile != null && armSystem.getTransitionPlanner().load(transitionCostFile))
+        {
+            System.out.println("loaded arm move times from " + transitionCostFile);
+        }
+        if (armControlHz > 0)
+        {
+            armSystem.runControlLoopAt(armControlHz);
+        }
 
         // stop all output when switching between modes
         currentlyInManual = new DigitalIn(() -> USE_MANUAL || toggleManualModeBtn.get()).addChangeListener((changed) ->
         {
             armSystem.reset();
             manualArmSystem.reset();
+            armButtons.reset();
         });
+
+        // registration order is priority order when several buttons are
+        // pressed in the same loop
+        armButtons = new ButtonEventBus(BUTTON_DEBOUNCE_LOOPS)
+                .onPress(intakeHatchGroundBtn, () -> armSystem.enterState(State.INTAKE_HATCH_FROM_GROUND))
+                .onPress(intakeHatchFeederBtn, () -> armSystem.enterState(State.INTAKE_HATCH_FROM_FEEDER))
+                .onPress(intakeCargoBtn, () -> armSystem.enterState(State.INTAKE_CARGO_FROM_GROUND))
+                .onPress(outtakeCargoBtn, () -> armSystem.enterState(State.OUTTAKE_CARGO))
+                .onPress(outtakeHatchBtn, () -> armSystem.enterState(State.OUTTAKE_HATCH))
+                .onPress(storeCargoBtn, () -> armSystem.enterState(State.STORE_CARGO))
+                .onPress(prepForClimbBtn, () -> armSystem.enterState(State.CLIMBING));
+    }
+
+    /**
+     * sets the rate of the arm's pid thread. Call before init
+     * 
+     * @param hz
+     *               rate to step the arm pid at, or 0 to step it from
+     *               {@link #update()} instead, e.g. for deterministic replay
+     */
+    public void setArmControlHz(double hz)
+    {
+        armControlHz = hz;
+    }
+
+    /**
+     * keeps measured arm move times in a file so routes planned from them
+     * carry over between reboots. Call before init
+     * 
+     * @param file
+     *                 e.g. {@link ArmTransitionPlanner#getDeployFile()}, or
+     *                 null to not keep them
+     */
+    public void setTransitionCostFile(Path file)
+    {
+        transitionCostFile = file;
+    }
+
+    /**
+     * writes measured arm move times to the cost file, if there is one and
+     * anything was measured since it was loaded. Call while disabled, as it
+     * touches the disk
+     */
+    public void saveTransitionCosts()
+    {
+        if (transitionCostFile == null || !armSystem.getTransitionPlanner().isChanged())
+        {
+            return;
+        }
+        try
+        {
+            armSystem.getTransitionPlanner().save(transitionCostFile);
+        }
+        catch (IOException e)
+        {
+            System.out.println("couldn't save arm move times: " + e);
+        }
     }
 
     @Override
@@ -141,34 +241,7 @@ public class TeleopArm extends Subsystem
 
     private void advancedUpdate()
     {
-        if (intakeHatchGroundBtn.get())
-        {
-            armSystem.enterState(State.INTAKE_HATCH_FROM_GROUND);
-        }
-        else if (intakeHatchFeederBtn.get())
-        {
-            armSystem.enterState(State.INTAKE_HATCH_FROM_FEEDER);
-        }
-        else if (intakeCargoBtn.get())
-        {
-            armSystem.enterState(State.INTAKE_CARGO_FROM_GROUND);
-        }
-        else if (outtakeCargoBtn.get())
-        {
-            armSystem.enterState(State.OUTTAKE_CARGO);
-        }
-        else if (outtakeHatchBtn.get())
-        {
-            armSystem.enterState(State.OUTTAKE_HATCH);
-        }
-        else if (storeCargoBtn.get())
-        {
-            armSystem.enterState(State.STORE_CARGO);
-        }
-        else if (prepForClimbBtn.get())
-        {
-            armSystem.enterState(State.CLIMBING);
-        }
+        armButtons.update();
         armSystem.update();
     }
 
@@ -188,4 +261,26 @@ public class TeleopArm extends Subsystem
     {
         return arg0.put(manualArmSystem, armSystem);
     }
-}
\ No newline at end of file
+
+    @Override
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        stem.put(TelemetryChannel.number("arm/axis", armAxis::get),
+                TelemetryChannel.bool("arm/buttons/intake hatch ground", intakeHatchGroundBtn::get),
+                TelemetryChannel.bool("arm/buttons/intake hatch feeder", intakeHatchFeederBtn::get),
+                TelemetryChannel.bool("arm/buttons/intake cargo", intakeCargoBtn::get),
+                TelemetryChannel.bool("arm/buttons/outtake cargo", outtakeCargoBtn::get),
+                TelemetryChannel.bool("arm/buttons/outtake hatch", outtakeHatchBtn::get),
+                TelemetryChannel.bool("arm/buttons/store cargo", storeCargoBtn::get),
+                TelemetryChannel.bool("arm/buttons/prep for climb", prepForClimbBtn::get),
+                TelemetryChannel.bool("arm/buttons/toggle manual", toggleManualModeBtn::get),
+                TelemetryChannel.bool("arm/manual mode", () -> USE_MANUAL || toggleManualModeBtn.get()));
+        return armSystem.getTelemetryChannels(stem);
+    }
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return manualArmSystem.getOwnedOutputs(armSystem.getOwnedOutputs(stem));
+    }
+}
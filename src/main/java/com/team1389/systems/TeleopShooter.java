@@ -1,13 +1,17 @@
 package com.team1389.systems;
 
+import com.team1389.commands.Clock;
 import com.team1389.hardware.inputs.software.DigitalIn;
 import com.team1389.hardware.outputs.software.DigitalOut;
+import com.team1389.scheduling.OutputOwner;
 import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetrySource;
 import com.team1389.util.list.AddList;
 import com.team1389.watch.Watchable;
 import com.team1389.systems.Shooter;
 
-public class TeleopShooter extends Subsystem
+public class TeleopShooter extends Subsystem implements TelemetrySource, OutputOwner
 {
     //Controls
     private DigitalIn shootRightBtn;
@@ -19,6 +23,7 @@ public class TeleopShooter extends Subsystem
     private DigitalIn hasCargo;
     
     private Shooter shooter;
+    private Clock clock;
 
     /**
      * @param shootRightBtn Input for shooting the ball to the right
@@ -30,26 +35,43 @@ public class TeleopShooter extends Subsystem
      * @param rightShooter Controller for shooting ball to the right
      * 
      * @param leftShooter Controller for shooting ball to the left
+     * 
+     * @param clock Time source for timed shooter steps
      */
 
     public TeleopShooter(DigitalOut rightShooter, DigitalOut leftShooter, 
-        DigitalIn shootRightButton, DigitalIn shootLeftButton, DigitalIn hasCargo)
+        DigitalIn shootRightButton, DigitalIn shootLeftButton, DigitalIn hasCargo, Clock clock)
     {
         this.rightShooter = rightShooter;
         this.leftShooter = leftShooter;
+        this.shootRightBtn = shootRightButton;
+        this.shootLeftBtn = shootLeftButton;
         this.hasCargo = hasCargo;
+        this.clock = clock;
+    }
+
+    public TeleopShooter(DigitalOut rightShooter, DigitalOut leftShooter, 
+        DigitalIn shootRightButton, DigitalIn shootLeftButton, DigitalIn hasCargo)
+    {
+        this(rightShooter, leftShooter, shootRightButton, shootLeftButton, hasCargo, Clock.SYSTEM);
     }
     public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
     {
         return stem.put(shooter);
     }
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        stem.put(TelemetryChannel.bool("shooter/buttons/right", shootRightBtn::get),
+                TelemetryChannel.bool("shooter/buttons/left", shootLeftBtn::get));
+        return shooter.getTelemetryChannels(stem);
+    }
     public String getName()
     {
         return "Teleop Shooter";
     }
     public void init()
     {
-        shooter = new Shooter(rightShooter, leftShooter, hasCargo);
+        shooter = new Shooter(rightShooter, leftShooter, hasCargo, clock);
     }
     public void updateShooter()
     {
@@ -66,6 +88,13 @@ public class TeleopShooter extends Subsystem
     {
         scheduler.update();
         updateShooter();
+        shooter.update();
     }
    
-}
\ No newline at end of file
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        return shooter.getOwnedOutputs(stem);
+    }
+}
@@ -0,0 +1,90 @@
+package com.team1389.systems;
+
+import com.team1389.scheduling.OutputOwner;
+import com.team1389.system.Subsystem;
+import com.team1389.telemetry.TelemetryChannel;
+import com.team1389.telemetry.TelemetryChannel.Rate;
+import com.team1389.telemetry.TelemetrySource;
+import com.team1389.util.list.AddList;
+import com.team1389.vision.TargetTracker;
+import com.team1389.vision.VisionTarget;
+import com.team1389.watch.Watchable;
+import com.team1389.watch.info.BooleanInfo;
+import com.team1389.watch.info.NumberInfo;
+
+/**
+ * the latest hatch and cargo placement target, for lining up on
+ * {@link Arm.State#OUTTAKE_HATCH} and {@link Arm.State#OUTTAKE_CARGO}. Frames
+ * are processed on the tracker's own thread; each update only copies its
+ * latest result, so the main loop never waits on vision
+ */
+public class Vision extends Subsystem implements TelemetrySource, OutputOwner
+{
+    //Vision thread
+    private TargetTracker tracker;
+    //Latest result, refreshed every update
+    private VisionTarget target = new VisionTarget();
+
+    /**
+     * @param tracker Finds targets in camera frames on its own thread
+     */
+    public Vision(TargetTracker tracker)
+    {
+        this.tracker = tracker;
+    }
+
+    public AddList<Watchable> getSubWatchables(AddList<Watchable> stem)
+    {
+        return stem.put(new BooleanInfo("target found", target::isFound),
+                new NumberInfo("target yaw", target::getYawDegrees));
+    }
+
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem)
+    {
+        return stem.put(TelemetryChannel.bool("vision/found", target::isFound),
+                TelemetryChannel.number("vision/yaw", target::getYawDegrees),
+                TelemetryChannel.number("vision/separation", target::getSeparationPixels),
+                TelemetryChannel.number("vision/age ms", () -> getAgeSeconds() * 1000).atRate(Rate.TEN_HZ),
+                TelemetryChannel.number("vision/frames", tracker::getFrames).atRate(Rate.ONE_HZ));
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Vision";
+    }
+
+    public void init()
+    {
+        tracker.start();
+    }
+
+    public void update()
+    {
+        tracker.getLatest(target);
+    }
+
+    /**
+     * @return the target as of the last update
+     */
+    public VisionTarget getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * @return seconds since the frame the target came from was captured
+     */
+    public double getAgeSeconds()
+    {
+        return target.getFrame() == 0 ? Double.POSITIVE_INFINITY
+                : tracker.getClock().getSeconds() - target.getCaptureSeconds();
+    }
+
+    @Override
+    public AddList<Object> getOwnedOutputs(AddList<Object> stem)
+    {
+        // only reads; shares nothing with other subsystems
+        return stem;
+    }
+}
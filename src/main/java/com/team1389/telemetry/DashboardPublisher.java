@@ -0,0 +1,88 @@
+package com.team1389.telemetry;
+
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+
+/**
+ * sends telemetry channels to NetworkTables, only when they are due at their
+ * {@link TelemetryChannel.Rate} and only if the value differs from the last
+ * one sent. Slower channels are staggered across loops so they don't all land
+ * on the same one. Enums are sent as their label
+ */
+public class DashboardPublisher
+{
+    private final TelemetryChannel[] channels;
+    private final NetworkTableEntry[] entries;
+    private final double[] lastSent;
+    private final boolean[] sentOnce;
+    private long loop;
+    private long checked;
+    private long sent;
+
+    public DashboardPublisher(NetworkTable table, List<TelemetryChannel> channels)
+    {
+        this.channels = channels.toArray(new TelemetryChannel[0]);
+        entries = new NetworkTableEntry[this.channels.length];
+        lastSent = new double[this.channels.length];
+        sentOnce = new boolean[this.channels.length];
+        for (int i = 0; i < entries.length; i++)
+        {
+            entries[i] = table.getEntry(this.channels[i].getName());
+        }
+    }
+
+    /**
+     * call once per main loop
+     */
+    public void publish()
+    {
+        for (int i = 0; i < channels.length; i++)
+        {
+            TelemetryChannel channel = channels[i];
+            if ((loop + i) % channel.getRate().loops != 0)
+            {
+                continue;
+            }
+            checked++;
+            double value = channel.getAsDouble();
+            // compare bits so a NaN that stays NaN counts as unchanged
+            if (sentOnce[i] && Double.doubleToLongBits(value) == Double.doubleToLongBits(lastSent[i]))
+            {
+                continue;
+            }
+            switch (channel.getType())
+            {
+            case BOOLEAN:
+                entries[i].setBoolean(value != 0);
+                break;
+            case ENUM:
+                entries[i].setString(channel.getLabels()[(int) value]);
+                break;
+            default:
+                entries[i].setDouble(value);
+            }
+            lastSent[i] = value;
+            sentOnce[i] = true;
+            sent++;
+        }
+        loop++;
+    }
+
+    /**
+     * @return how many channel values were sampled because they were due
+     */
+    public long getCheckedCount()
+    {
+        return checked;
+    }
+
+    /**
+     * @return how many channel values actually changed and were sent
+     */
+    public long getSentCount()
+    {
+        return sent;
+    }
+}
@@ -0,0 +1,206 @@
+package com.team1389.telemetry;
+
+import java.util.List;
+
+import com.team1389.commands.Clock;
+
+/**
+ * the last few seconds of robot state, one timestamped snapshot of a set of
+ * channels per loop, for matching a measurement that arrives late, such as a
+ * camera frame, to what the robot was doing when it was taken:
+ *
+ * <pre>
+ * double angleThen = history.get(target.getCaptureSeconds(), armAngleChannel);
+ * </pre>
+ *
+ * Snapshots live in a fixed ring of primitives, so recording and looking up
+ * never allocate. A lookup is a binary search over the ring. Numbers are
+ * interpolated between the snapshots either side of the time asked for;
+ * booleans and enums take the value of the snapshot at or before it. Times
+ * outside the history get the oldest or newest snapshot.
+ * <p>
+ * Not thread safe; record and look up from the main loop
+ */
+public class StateHistory
+{
+    private final TelemetryChannel[] channels;
+    private final boolean[] interpolated;
+    private final Clock clock;
+    private final int mask;
+    private final double[] times;
+    // snapshot in slot s, channel c is at s * channels + c
+    private final double[] values;
+    private long recorded;
+
+    /**
+     * @param capacity
+     *                     snapshots kept, rounded up to a power of two
+     * @param clock
+     *                     time source for snapshot timestamps; measurements
+     *                     looked up must be timestamped on the same clock
+     */
+    public StateHistory(List<TelemetryChannel> channels, int capacity, Clock clock)
+    {
+        this.channels = channels.toArray(new TelemetryChannel[0]);
+        this.clock = clock;
+        interpolated = new boolean[this.channels.length];
+        for (int i = 0; i < interpolated.length; i++)
+        {
+            interpolated[i] = this.channels[i].getType() == TelemetryChannel.Type.NUMBER;
+        }
+        int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mask = slots - 1;
+        times = new double[slots];
+        values = new double[slots * this.channels.length];
+    }
+
+    /**
+     * snapshots every channel at the clock's current time. Call once per
+     * loop, after the subsystems update
+     */
+    public void record()
+    {
+        record(clock.getSeconds());
+    }
+
+    /**
+     * snapshots every channel at the given time. A time no later than the
+     * newest snapshot replaces it, so times stay increasing
+     */
+    public void record(double seconds)
+    {
+        if (recorded > 0 && seconds <= times[(int) ((recorded - 1) & mask)])
+        {
+            recorded--;
+        }
+        int slot = (int) (recorded & mask);
+        times[slot] = seconds;
+        int base = slot * channels.length;
+        for (int i = 0; i < channels.length; i++)
+        {
+            values[base + i] = channels[i].getAsDouble();
+        }
+        recorded++;
+    }
+
+    /**
+     * @return the channel's value at the given time, or NaN if nothing has
+     *         been recorded
+     */
+    public double get(double seconds, int channel)
+    {
+        int size = getSize();
+        if (size == 0)
+        {
+            return Double.NaN;
+        }
+        int before = findAtOrBefore(seconds, size);
+        return valueAt(seconds, before, size, channel);
+    }
+
+    /**
+     * fills in every channel's value at the given time with one search
+     * 
+     * @param into
+     *                 indexed like the channels; left alone if nothing has
+     *                 been recorded
+     */
+    public void get(double seconds, double[] into)
+    {
+        int size = getSize();
+        if (size == 0)
+        {
+            return;
+        }
+        int before = findAtOrBefore(seconds, size);
+        for (int i = 0; i < channels.length; i++)
+        {
+            into[i] = valueAt(seconds, before, size, i);
+        }
+    }
+
+    /**
+     * @return position, counting from the oldest snapshot, of the newest
+     *         snapshot at or before the time, or -1 if the time is before
+     *         them all
+     */
+    private int findAtOrBefore(double seconds, int size)
+    {
+        int low = 0;
+        int high = size - 1;
+        int found = -1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (times[slot(middle, size)] <= seconds)
+            {
+                found = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private double valueAt(double seconds, int before, int size, int channel)
+    {
+        if (before < 0)
+        {
+            return values[slot(0, size) * channels.length + channel];
+        }
+        int from = slot(before, size);
+        double value = values[from * channels.length + channel];
+        if (before == size - 1 || !interpolated[channel])
+        {
+            return value;
+        }
+        int to = slot(before + 1, size);
+        double fraction = (seconds - times[from]) / (times[to] - times[from]);
+        return value + (values[to * channels.length + channel] - value) * fraction;
+    }
+
+    private int slot(int position, int size)
+    {
+        return (int) ((recorded - size + position) & mask);
+    }
+
+    /**
+     * @return the index of the channel with that name, or -1
+     */
+    public int indexOf(String name)
+    {
+        for (int i = 0; i < channels.length; i++)
+        {
+            if (channels[i].getName().equals(name))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return snapshots held, up to the capacity
+     */
+    public int getSize()
+    {
+        return (int) Math.min(recorded, mask + 1);
+    }
+
+    /**
+     * @return time of the oldest snapshot; lookups before it aren't
+     *         compensated
+     */
+    public double getOldestSeconds()
+    {
+        return getSize() == 0 ? Double.NaN : times[slot(0, getSize())];
+    }
+
+    public double getNewestSeconds()
+    {
+        return getSize() == 0 ? Double.NaN : times[(int) ((recorded - 1) & mask)];
+    }
+}
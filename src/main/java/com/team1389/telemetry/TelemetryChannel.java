@@ -0,0 +1,164 @@
+package com.team1389.telemetry;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * a single named, typed value sampled every loop. Values are read through
+ * primitive suppliers so sampling never allocates. The recorder logs every
+ * channel every loop; the {@link Rate} only limits how often the dashboard
+ * sees it
+ */
+public class TelemetryChannel
+{
+    public enum Type
+    {
+        NUMBER, BOOLEAN, ENUM
+    }
+
+    /**
+     * how often a channel is sent to the dashboard, assuming the 50 Hz main
+     * loop
+     */
+    public enum Rate
+    {
+        EVERY_LOOP(1), TEN_HZ(5), ONE_HZ(50);
+
+        public final int loops;
+
+        private Rate(int loops)
+        {
+            this.loops = loops;
+        }
+    }
+
+    private final String name;
+    private final Type type;
+    private final DoubleSupplier number;
+    private final BooleanSupplier bool;
+    private final IntSupplier ordinal;
+    private final String[] labels;
+    private final Rate rate;
+
+    private TelemetryChannel(String name, Type type, DoubleSupplier number, BooleanSupplier bool,
+            IntSupplier ordinal, String[] labels, Rate rate)
+    {
+        this.rate = rate;
+        this.name = name;
+        this.type = type;
+        this.number = number;
+        this.bool = bool;
+        this.ordinal = ordinal;
+        this.labels = labels;
+    }
+
+    public static TelemetryChannel number(String name, DoubleSupplier value)
+    {
+        return new TelemetryChannel(name, Type.NUMBER, value, null, null, null, Rate.EVERY_LOOP);
+    }
+
+    public static TelemetryChannel bool(String name, BooleanSupplier value)
+    {
+        return new TelemetryChannel(name, Type.BOOLEAN, null, value, null, null, Rate.EVERY_LOOP);
+    }
+
+    /**
+     * @param ordinal
+     *                    supplies the ordinal of the current value of an enum
+     *                    with at most 256 values
+     */
+    public static <E extends Enum<E>> TelemetryChannel enumeration(String name, Class<E> type, IntSupplier ordinal)
+    {
+        E[] values = type.getEnumConstants();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            labels[i] = values[i].name();
+        }
+        return enumeration(name, labels, ordinal);
+    }
+
+    /**
+     * for a value out of a fixed set of names known up front, like the
+     * commands a subsystem built at init
+     * 
+     * @param labels
+     *                    the names, at most 256
+     * @param ordinal
+     *                    supplies the index of the current name
+     */
+    public static TelemetryChannel enumeration(String name, String[] labels, IntSupplier ordinal)
+    {
+        return new TelemetryChannel(name, Type.ENUM, null, null, ordinal, labels.clone(), Rate.EVERY_LOOP);
+    }
+
+    /**
+     * @return a copy of this channel sent to the dashboard at the given rate
+     */
+    public TelemetryChannel atRate(Rate rate)
+    {
+        return new TelemetryChannel(name, type, number, bool, ordinal, labels, rate);
+    }
+
+    /**
+     * @return a channel with this one's name, type, labels and rate that
+     *         reads its value, as a number, from somewhere else
+     */
+    TelemetryChannel mirror(DoubleSupplier value)
+    {
+        return new TelemetryChannel(name, type, value, () -> value.getAsDouble() != 0,
+                () -> (int) value.getAsDouble(), labels, rate);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public Rate getRate()
+    {
+        return rate;
+    }
+
+    /**
+     * @return the current value as a number; booleans are 0 or 1 and enums are
+     *         their ordinal
+     */
+    public double getAsDouble()
+    {
+        switch (type)
+        {
+        case BOOLEAN:
+            return bool.getAsBoolean() ? 1 : 0;
+        case ENUM:
+            return ordinal.getAsInt();
+        default:
+            return number.getAsDouble();
+        }
+    }
+
+    public boolean getBoolean()
+    {
+        return bool.getAsBoolean();
+    }
+
+    public int getOrdinal()
+    {
+        return ordinal.getAsInt();
+    }
+
+    /**
+     * @return names of the enum values, indexed by ordinal, or null if this
+     *         isn't an enum channel
+     */
+    public String[] getLabels()
+    {
+        return labels;
+    }
+}
@@ -0,0 +1,180 @@
+package com.team1389.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * reads a log written by {@link TelemetryRecorder}. The file is memory-mapped
+ * and values are decoded straight from it, so reading a record doesn't
+ * allocate
+ */
+public class TelemetryLog
+{
+    private final MappedByteBuffer buffer;
+    private final int recordSize;
+    private final int headerSize;
+    private final int recordCount;
+
+    private final String[] names;
+    private final TelemetryChannel.Type[] types;
+    private final String[][] labels;
+    // byte offset of each channel within a record; for booleans, the bit
+    // index is packed into the low 3 bits
+    private final int[] offsets;
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    public TelemetryLog(Path path) throws IOException
+    {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != TelemetryRecorder.MAGIC)
+        {
+            throw new IOException(path + " isn't a telemetry log");
+        }
+        short version = buffer.getShort();
+        if (version != TelemetryRecorder.VERSION)
+        {
+            throw new IOException(path + " is log version " + version);
+        }
+        int channelCount = buffer.getShort();
+        recordSize = buffer.getInt();
+        headerSize = buffer.getInt();
+        recordCount = buffer.getInt();
+
+        names = new String[channelCount];
+        types = new TelemetryChannel.Type[channelCount];
+        labels = new String[channelCount][];
+        int numbers = 0;
+        int enums = 0;
+        for (int i = 0; i < channelCount; i++)
+        {
+            types[i] = TelemetryChannel.Type.values()[buffer.get()];
+            names[i] = getString();
+            indices.put(names[i], i);
+            if (types[i] == TelemetryChannel.Type.NUMBER)
+            {
+                numbers++;
+            }
+            else if (types[i] == TelemetryChannel.Type.ENUM)
+            {
+                enums++;
+                labels[i] = new String[buffer.get() & 0xFF];
+                for (int j = 0; j < labels[i].length; j++)
+                {
+                    labels[i][j] = getString();
+                }
+            }
+        }
+
+        // same layout the recorder writes: numbers, enums, then packed bits
+        offsets = new int[channelCount];
+        int number = 0;
+        int enumeration = 0;
+        int bool = 0;
+        for (int i = 0; i < channelCount; i++)
+        {
+            switch (types[i])
+            {
+            case NUMBER:
+                offsets[i] = Long.BYTES + number++ * Float.BYTES;
+                break;
+            case ENUM:
+                offsets[i] = Long.BYTES + numbers * Float.BYTES + enumeration++;
+                break;
+            case BOOLEAN:
+                int byteOffset = Long.BYTES + numbers * Float.BYTES + enums + bool / 8;
+                offsets[i] = byteOffset << 3 | (bool & 7);
+                bool++;
+                break;
+            }
+        }
+    }
+
+    private String getString()
+    {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getRecordCount()
+    {
+        return recordCount;
+    }
+
+    public int getChannelCount()
+    {
+        return names.length;
+    }
+
+    public String getName(int channel)
+    {
+        return names[channel];
+    }
+
+    public TelemetryChannel.Type getType(int channel)
+    {
+        return types[channel];
+    }
+
+    /**
+     * @return the index of the named channel, or -1 if the log doesn't have it
+     */
+    public int indexOf(String name)
+    {
+        Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the record's timestamp in seconds
+     */
+    public double getTimestamp(int record)
+    {
+        return buffer.getLong(headerSize + record * recordSize) / 1e6;
+    }
+
+    /**
+     * @return the channel's value as a number; booleans are 0 or 1 and enums
+     *         are their ordinal
+     */
+    public double getAsDouble(int record, int channel)
+    {
+        switch (types[channel])
+        {
+        case BOOLEAN:
+            return getBoolean(record, channel) ? 1 : 0;
+        case ENUM:
+            return getOrdinal(record, channel);
+        default:
+            return buffer.getFloat(headerSize + record * recordSize + offsets[channel]);
+        }
+    }
+
+    public boolean getBoolean(int record, int channel)
+    {
+        int offset = offsets[channel];
+        byte bits = buffer.get(headerSize + record * recordSize + (offset >> 3));
+        return (bits & 1 << (offset & 7)) != 0;
+    }
+
+    public int getOrdinal(int record, int channel)
+    {
+        return buffer.get(headerSize + record * recordSize + offsets[channel]) & 0xFF;
+    }
+
+    public String getLabel(int channel, int ordinal)
+    {
+        return labels[channel][ordinal];
+    }
+}
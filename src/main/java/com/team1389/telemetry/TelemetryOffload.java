@@ -0,0 +1,243 @@
+package com.team1389.telemetry;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.team1389.commands.Clock;
+
+/**
+ * moves telemetry I/O off the main loop. The main loop copies every channel
+ * into a preallocated ring of snapshots with {@link #sample()}, which never
+ * blocks or allocates. A background thread replays each snapshot through
+ * {@link #getChannels() mirror channels} and runs the consumers, such as a
+ * recorder and a dashboard publisher, against them.
+ * <p>
+ * There is one producer and one consumer. If the consumer falls behind, the
+ * producer overwrites the oldest snapshots and the consumer counts them as
+ * dropped. Each slot carries a sequence number, so a snapshot overwritten
+ * while it is being read is detected and dropped rather than delivered torn
+ */
+public class TelemetryOffload
+{
+    private static final long IDLE_POLL_NANOS = 2_000_000;
+    private static final long STOP_TIMEOUT_MILLIS = 500;
+
+    private final TelemetryChannel[] channels;
+    private final Clock clock;
+    private final int mask;
+
+    private final double[][] values;
+    private final long[] timestamps;
+    // 2n + 1 while snapshot n is being written into the slot, 2n + 2 once done
+    private final AtomicLongArray sequences;
+    private volatile long written;
+
+    // owned by the consumer thread
+    private final double[] current;
+    private long currentMicros;
+    private long read;
+    private final List<Runnable> consumers = new ArrayList<>();
+
+    private volatile long dropped;
+    private volatile long delivered;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param channels
+     *                     channels to sample on the main loop
+     * @param capacity
+     *                     snapshots the ring holds, rounded up to a power of
+     *                     two
+     * @param clock
+     *                     time source for snapshot timestamps
+     */
+    public TelemetryOffload(List<TelemetryChannel> channels, int capacity, Clock clock)
+    {
+        this.channels = channels.toArray(new TelemetryChannel[0]);
+        this.clock = clock;
+        int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        mask = slots - 1;
+        values = new double[slots][this.channels.length];
+        timestamps = new long[slots];
+        sequences = new AtomicLongArray(slots);
+        current = new double[this.channels.length];
+    }
+
+    /**
+     * @return channels that read the snapshot currently being consumed. Only
+     *         meaningful from a consumer
+     */
+    public List<TelemetryChannel> getChannels()
+    {
+        List<TelemetryChannel> mirrors = new ArrayList<>(channels.length);
+        for (int i = 0; i < channels.length; i++)
+        {
+            int index = i;
+            mirrors.add(channels[i].mirror(() -> current[index]));
+        }
+        return mirrors;
+    }
+
+    /**
+     * @return the timestamp of the snapshot currently being consumed
+     */
+    public Clock getClock()
+    {
+        return () -> currentMicros / 1e6;
+    }
+
+    /**
+     * runs on the background thread once per snapshot, in the order added.
+     * Add consumers before {@link #start()}
+     */
+    public void addConsumer(Runnable consumer)
+    {
+        consumers.add(consumer);
+    }
+
+    /**
+     * copies every channel into the next slot. Call once per main loop
+     */
+    public void sample()
+    {
+        long index = written;
+        int slot = (int) (index & mask);
+        sequences.set(slot, 2 * index + 1);
+        VarHandle.storeStoreFence();
+        timestamps[slot] = (long) (clock.getSeconds() * 1e6);
+        double[] snapshot = values[slot];
+        for (int i = 0; i < channels.length; i++)
+        {
+            snapshot[i] = channels[i].getAsDouble();
+        }
+        sequences.set(slot, 2 * index + 2);
+        written = index + 1;
+    }
+
+    /**
+     * delivers every snapshot available so far to the consumers. Called by the
+     * background thread, or directly when it isn't running
+     *
+     * @return how many snapshots were delivered
+     */
+    public int drain()
+    {
+        long available = written;
+        int count = 0;
+        if (available - read > mask + 1)
+        {
+            dropped += available - (mask + 1) - read;
+            read = available - (mask + 1);
+        }
+        for (; read < available; read++)
+        {
+            int slot = (int) (read & mask);
+            long expected = 2 * read + 2;
+            if (sequences.get(slot) != expected)
+            {
+                dropped++;
+                continue;
+            }
+            currentMicros = timestamps[slot];
+            System.arraycopy(values[slot], 0, current, 0, current.length);
+            VarHandle.loadLoadFence();
+            if (sequences.get(slot) != expected)
+            {
+                dropped++;
+                continue;
+            }
+            for (int i = 0; i < consumers.size(); i++)
+            {
+                consumers.get(i).run();
+            }
+            count++;
+        }
+        delivered += count;
+        return count;
+    }
+
+    /**
+     * starts the background thread, which drains the ring until
+     * {@link #stop()} is called
+     */
+    public void start()
+    {
+        running = true;
+        thread = new Thread(this::run, "telemetry");
+        thread.setDaemon(true);
+        // never compete with the main loop
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    private void run()
+    {
+        while (running)
+        {
+            if (drain() == 0)
+            {
+                LockSupport.parkNanos(IDLE_POLL_NANOS);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * stops the background thread after it delivers what is left in the
+     * ring
+     *
+     * @return true if the thread has exited, so the consumers are safe to use
+     *         from the calling thread; false if it is stuck in a consumer
+     */
+    public boolean stop()
+    {
+        running = false;
+        if (thread == null)
+        {
+            return true;
+        }
+        LockSupport.unpark(thread);
+        try
+        {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive())
+        {
+            return false;
+        }
+        thread = null;
+        return true;
+    }
+
+    /**
+     * @return snapshots taken on the main loop
+     */
+    public long getSampled()
+    {
+        return written;
+    }
+
+    /**
+     * @return snapshots that were overwritten before the consumer got to them
+     */
+    public long getDropped()
+    {
+        return dropped;
+    }
+
+    /**
+     * @return snapshots handed to the consumers
+     */
+    public long getDelivered()
+    {
+        return delivered;
+    }
+}
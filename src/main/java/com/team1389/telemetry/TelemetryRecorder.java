@@ -0,0 +1,289 @@
+package com.team1389.telemetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.team1389.commands.Clock;
+
+/**
+ * records every channel every loop into a preallocated ring buffer, which is
+ * flushed in bulk into a memory-mapped log file. Recording never allocates.
+ * <p>
+ * File layout, little-endian:
+ * 
+ * <pre>
+ * header:  int magic, short version, short channel count, int record size,
+ *          int header size, int record count
+ *          per channel: byte type, string name,
+ *                       and for enums byte label count, string labels
+ *          (strings are a short byte length then UTF-8 bytes)
+ * records: long timestamp in microseconds,
+ *          a float per number channel, a byte per enum channel,
+ *          then boolean channels packed 8 to a byte
+ * </pre>
+ * 
+ * Channels of each type appear in records in the order they are declared in
+ * the header
+ */
+public class TelemetryRecorder
+{
+    public static final int MAGIC = 0x31333839;
+    public static final short VERSION = 1;
+    public static final int RECORD_COUNT_OFFSET = 16;
+
+    private static final int DEFAULT_RING_RECORDS = 50;
+    private static final long DEFAULT_FILE_BYTES = 64 * 1024 * 1024;
+    /**
+     * logs {@link #open} keeps in a directory, counting the new one; the
+     * roboRIO's flash is small
+     */
+    public static final int KEEP_LOGS = 8;
+    private static final Pattern LOG_NAME = Pattern.compile("telemetry-(\\d{1,9})\\.bin");
+
+    private final TelemetryChannel[] numbers;
+    private final TelemetryChannel[] enums;
+    private final TelemetryChannel[] booleans;
+    private final int recordSize;
+    private final Clock clock;
+
+    private final ByteBuffer ring;
+    private final FileChannel file;
+    private final MappedByteBuffer mapped;
+
+    private int headerSize;
+    private int recorded;
+    private long dropped;
+
+    /**
+     * @param path
+     *                        log file to create; must not exist yet
+     * @param channels
+     *                        channels to record, fixed for the life of the
+     *                        recorder
+     * @param ringRecords
+     *                        records to buffer between flushes
+     * @param fileBytes
+     *                        size to map the log file at; records past this
+     *                        are dropped
+     * @param clock
+     *                        time source for record timestamps
+     */
+    public TelemetryRecorder(Path path, List<TelemetryChannel> channels, int ringRecords, long fileBytes, Clock clock)
+            throws IOException
+    {
+        this.clock = clock;
+        numbers = ofType(channels, TelemetryChannel.Type.NUMBER);
+        enums = ofType(channels, TelemetryChannel.Type.ENUM);
+        booleans = ofType(channels, TelemetryChannel.Type.BOOLEAN);
+        recordSize = Long.BYTES + numbers.length * Float.BYTES + enums.length + (booleans.length + 7) / 8;
+
+        ring = ByteBuffer.allocateDirect(recordSize * ringRecords).order(ByteOrder.LITTLE_ENDIAN);
+        Files.createDirectories(path.getParent());
+        file = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader(channels);
+    }
+
+    /**
+     * opens a new log in the given directory, numbered one past the highest
+     * numbered log there, and deletes the oldest logs so at most
+     * {@value #KEEP_LOGS} are left
+     * 
+     * @return the recorder, or null if the log couldn't be created
+     */
+    public static TelemetryRecorder open(Path directory, List<TelemetryChannel> channels, Clock clock)
+    {
+        try
+        {
+            Files.createDirectories(directory);
+            List<Integer> logs = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory))
+            {
+                files.forEach(file ->
+                {
+                    Matcher name = LOG_NAME.matcher(file.getFileName().toString());
+                    if (name.matches())
+                    {
+                        logs.add(Integer.parseInt(name.group(1)));
+                    }
+                });
+            }
+            Collections.sort(logs);
+            int next = logs.isEmpty() ? 0 : logs.get(logs.size() - 1) + 1;
+            for (int i = 0; i < logs.size() - (KEEP_LOGS - 1); i++)
+            {
+                Files.deleteIfExists(directory.resolve(logName(logs.get(i))));
+            }
+            Path path = directory.resolve(logName(next));
+            return new TelemetryRecorder(path, channels, DEFAULT_RING_RECORDS, DEFAULT_FILE_BYTES, clock);
+        }
+        catch (IOException e)
+        {
+            System.out.println("couldn't open telemetry log in " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String logName(int index)
+    {
+        return String.format("telemetry-%04d.bin", index);
+    }
+
+    private static TelemetryChannel[] ofType(List<TelemetryChannel> channels, TelemetryChannel.Type type)
+    {
+        List<TelemetryChannel> matching = new ArrayList<>();
+        for (TelemetryChannel channel : channels)
+        {
+            if (channel.getType() == type)
+            {
+                matching.add(channel);
+            }
+        }
+        return matching.toArray(new TelemetryChannel[0]);
+    }
+
+    private void writeHeader(List<TelemetryChannel> channels)
+    {
+        mapped.putInt(MAGIC);
+        mapped.putShort(VERSION);
+        mapped.putShort((short) channels.size());
+        mapped.putInt(recordSize);
+        int headerSizePosition = mapped.position();
+        mapped.putInt(0);
+        mapped.putInt(0);
+        for (TelemetryChannel channel : channels)
+        {
+            mapped.put((byte) channel.getType().ordinal());
+            putString(channel.getName());
+            if (channel.getType() == TelemetryChannel.Type.ENUM)
+            {
+                String[] labels = channel.getLabels();
+                mapped.put((byte) labels.length);
+                for (String label : labels)
+                {
+                    putString(label);
+                }
+            }
+        }
+        headerSize = mapped.position();
+        mapped.putInt(headerSizePosition, headerSize);
+    }
+
+    private void putString(String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        mapped.putShort((short) bytes.length);
+        mapped.put(bytes);
+    }
+
+    /**
+     * samples every channel into the ring buffer, flushing it to the file if
+     * it fills up
+     */
+    public void record()
+    {
+        if (ring.remaining() < recordSize)
+        {
+            flush();
+        }
+        ring.putLong((long) (clock.getSeconds() * 1e6));
+        for (int i = 0; i < numbers.length; i++)
+        {
+            ring.putFloat((float) numbers[i].getAsDouble());
+        }
+        for (int i = 0; i < enums.length; i++)
+        {
+            ring.put((byte) enums[i].getOrdinal());
+        }
+        int bits = 0;
+        for (int i = 0; i < booleans.length; i++)
+        {
+            if (booleans[i].getBoolean())
+            {
+                bits |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7 || i == booleans.length - 1)
+            {
+                ring.put((byte) bits);
+                bits = 0;
+            }
+        }
+    }
+
+    /**
+     * copies everything buffered so far into the mapped file
+     */
+    public void flush()
+    {
+        ring.flip();
+        int records = ring.remaining() / recordSize;
+        if (mapped.remaining() >= ring.remaining())
+        {
+            mapped.put(ring);
+            recorded += records;
+            mapped.putInt(RECORD_COUNT_OFFSET, recorded);
+        }
+        else
+        {
+            dropped += records;
+        }
+        ring.clear();
+    }
+
+    /**
+     * flushes and forces the file's contents to disk. Slower than a flush; do
+     * this when the robot is disabled
+     */
+    public void sync()
+    {
+        flush();
+        mapped.force();
+    }
+
+    /**
+     * syncs the log and trims the file down to the records written
+     */
+    public void close()
+    {
+        sync();
+        try
+        {
+            file.truncate(headerSize + (long) recorded * recordSize);
+            file.close();
+        }
+        catch (IOException e)
+        {
+            System.out.println("couldn't close telemetry log: " + e.getMessage());
+        }
+    }
+
+    public int getRecorded()
+    {
+        return recorded;
+    }
+
+    public long getDropped()
+    {
+        return dropped;
+    }
+
+    public int getRecordSize()
+    {
+        return recordSize;
+    }
+}
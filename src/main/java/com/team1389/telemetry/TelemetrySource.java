@@ -0,0 +1,12 @@
+package com.team1389.telemetry;
+
+import com.team1389.util.list.AddList;
+
+/**
+ * something that exposes values to record every loop, in the same style as
+ * {@link com.team1389.watch.CompositeWatchable#getSubWatchables}
+ */
+public interface TelemetrySource
+{
+    public AddList<TelemetryChannel> getTelemetryChannels(AddList<TelemetryChannel> stem);
+}
@@ -0,0 +1,52 @@
+package com.team1389.vision;
+
+import org.opencv.core.Mat;
+
+import com.team1389.commands.Clock;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.UsbCamera;
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * frames from a USB camera, set up to pick out retroreflective tape lit by a
+ * ring light
+ */
+public class CameraFrameSource implements FrameSource
+{
+    public static final int WIDTH = 320;
+    public static final int HEIGHT = 240;
+    public static final int FPS = 30;
+    // dark enough that only lit tape is left bright
+    private static final int EXPOSURE = 5;
+    private static final int WHITE_BALANCE = 4500;
+    // longer than a frame takes at the lowest rate the camera falls to
+    private static final double TIMEOUT_SECONDS = 0.5;
+
+    private final CvSink sink;
+
+    public CameraFrameSource(int device)
+    {
+        UsbCamera camera = CameraServer.getInstance().startAutomaticCapture(device);
+        camera.setResolution(WIDTH, HEIGHT);
+        camera.setFPS(FPS);
+        camera.setExposureManual(EXPOSURE);
+        camera.setWhiteBalanceManual(WHITE_BALANCE);
+        sink = CameraServer.getInstance().getVideo(camera);
+    }
+
+    @Override
+    public double grab(Mat frame, Clock clock)
+    {
+        // microseconds on the FPGA clock, stamped by cscore when the frame
+        // arrived rather than when it was handed over
+        long frameTime = sink.grabFrame(frame, TIMEOUT_SECONDS);
+        if (frameTime == 0)
+        {
+            return Double.NaN;
+        }
+        double age = (RobotController.getFPGATime() - frameTime) / 1e6;
+        return clock.getSeconds() - age;
+    }
+}
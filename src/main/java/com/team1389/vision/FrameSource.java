@@ -0,0 +1,23 @@
+package com.team1389.vision;
+
+import org.opencv.core.Mat;
+
+import com.team1389.commands.Clock;
+
+/**
+ * somewhere BGR frames come from, such as a camera or a folder of recorded
+ * images
+ */
+@FunctionalInterface
+public interface FrameSource
+{
+    /**
+     * copies the next frame into the given buffer, reusing its memory when
+     * the size hasn't changed. May block until a frame is ready, so the time
+     * it returns is when the frame was captured, not when grab returned
+     * 
+     * @return the capture time on the given clock, or NaN if there was no
+     *         frame
+     */
+    public double grab(Mat frame, Clock clock);
+}
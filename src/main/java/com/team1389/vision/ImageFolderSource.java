@@ -0,0 +1,80 @@
+package com.team1389.vision;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import com.team1389.commands.Clock;
+
+/**
+ * frames from a folder of recorded images, over and over. Every image is
+ * decoded up front, so grabbing a frame is a copy and benchmarks measure the
+ * pipeline rather than the disk and the decoder
+ */
+public class ImageFolderSource implements FrameSource
+{
+    private final List<Mat> images = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private int next;
+
+    /**
+     * @throws IOException
+     *                         if the folder can't be read or holds no images
+     */
+    public ImageFolderSource(Path folder) throws IOException
+    {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(folder))
+        {
+            files = listing.filter(ImageFolderSource::isImage).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files)
+        {
+            Mat image = Imgcodecs.imread(file.toString());
+            if (image.empty())
+            {
+                System.out.println("couldn't decode " + file);
+                continue;
+            }
+            images.add(image);
+            names.add(file.getFileName().toString());
+        }
+        if (images.isEmpty())
+        {
+            throw new IOException("no images in " + folder);
+        }
+    }
+
+    private static boolean isImage(Path file)
+    {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png");
+    }
+
+    @Override
+    public double grab(Mat frame, Clock clock)
+    {
+        // the image is "captured" before the copy, as a camera's would be
+        double captured = clock.getSeconds();
+        images.get(next).copyTo(frame);
+        next = (next + 1) % images.size();
+        return captured;
+    }
+
+    public int getImageCount()
+    {
+        return images.size();
+    }
+
+    public String getImageName(int index)
+    {
+        return names.get(index);
+    }
+}
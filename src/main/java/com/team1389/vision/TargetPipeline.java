@@ -0,0 +1,182 @@
+package com.team1389.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+/**
+ * finds 2019 vision targets: pairs of retroreflective strips tilted about 14.5
+ * degrees toward each other, lit green by a ring light. Each frame is
+ * thresholded in HSV, the strips are picked out of the contours by size and
+ * shape, and the pair of strips leaning in toward each other closest to the
+ * middle of the frame is the target.
+ * <p>
+ * The HSV image and the mask are kept from frame to frame, so once frames
+ * stop changing size OpenCV reuses their memory. OpenCV's Java bindings still
+ * make a small object for each contour and its moments; the contours' native
+ * memory is released as soon as the frame is done rather than left for the
+ * garbage collector
+ */
+public class TargetPipeline
+{
+    // the LifeCam's horizontal field of view
+    public static final double HORIZONTAL_FOV_DEGREES = 61;
+    private static final int MAX_STRIPS = 16;
+
+    private final Scalar low = new Scalar(55, 100, 80);
+    private final Scalar high = new Scalar(95, 255, 255);
+    private final double minArea;
+    // strips are 2 by 5.5 inches, so their second moments differ by about 7x
+    private final double minElongation = 3;
+
+    private final Mat hsv = new Mat();
+    private final Mat mask = new Mat();
+    private final Mat hierarchy = new Mat();
+    private final List<MatOfPoint> contours = new ArrayList<>();
+
+    private final double[] stripX = new double[MAX_STRIPS];
+    private final double[] stripArea = new double[MAX_STRIPS];
+    private final boolean[] stripLeansRight = new boolean[MAX_STRIPS];
+    private int strips;
+
+    /**
+     * @param minArea
+     *                    smallest contour, in square pixels, taken for a strip
+     */
+    public TargetPipeline(double minArea)
+    {
+        this.minArea = minArea;
+    }
+
+    public TargetPipeline()
+    {
+        this(20);
+    }
+
+    /**
+     * finds the target in a BGR frame
+     * 
+     * @param target
+     *                   filled in with what was found
+     */
+    public void process(Mat frame, VisionTarget target)
+    {
+        Imgproc.cvtColor(frame, hsv, Imgproc.COLOR_BGR2HSV);
+        Core.inRange(hsv, low, high, mask);
+        for (int i = 0; i < contours.size(); i++)
+        {
+            contours.get(i).release();
+        }
+        contours.clear();
+        Imgproc.findContours(mask, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        strips = 0;
+        for (int i = 0; i < contours.size(); i++)
+        {
+            addStrip(contours.get(i));
+        }
+        findPair(frame.cols(), target);
+    }
+
+    private void addStrip(MatOfPoint contour)
+    {
+        double area = Imgproc.contourArea(contour);
+        if (area < minArea)
+        {
+            return;
+        }
+        Moments moments = Imgproc.moments(contour);
+        double common = (moments.mu20 + moments.mu02) / 2;
+        double spread = Math.sqrt(4 * moments.mu11 * moments.mu11 + Math.pow(moments.mu20 - moments.mu02, 2)) / 2;
+        double minor = common - spread;
+        if (minor <= 0 || (common + spread) / minor < minElongation)
+        {
+            return;
+        }
+        // angle of the long axis from the x axis, with y pointing down; a
+        // strip whose top leans right has it between -90 and 0 degrees
+        double axis = 0.5 * Math.atan2(2 * moments.mu11, moments.mu20 - moments.mu02);
+
+        int slot = strips;
+        if (strips == MAX_STRIPS)
+        {
+            // full of strips; replace the smallest if this one is bigger
+            slot = 0;
+            for (int i = 1; i < MAX_STRIPS; i++)
+            {
+                if (stripArea[i] < stripArea[slot])
+                {
+                    slot = i;
+                }
+            }
+            if (stripArea[slot] >= area)
+            {
+                return;
+            }
+        }
+        else
+        {
+            strips++;
+        }
+        stripX[slot] = moments.m10 / moments.m00;
+        stripArea[slot] = area;
+        stripLeansRight[slot] = axis < 0;
+    }
+
+    /**
+     * pairs each strip leaning right with the nearest strip to its right
+     * leaning left, and keeps the pair closest to the middle of the frame
+     */
+    private void findPair(int width, VisionTarget target)
+    {
+        double center = width / 2.0;
+        double bestOffset = Double.MAX_VALUE;
+        double bestSeparation = 0;
+        for (int left = 0; left < strips; left++)
+        {
+            if (!stripLeansRight[left])
+            {
+                continue;
+            }
+            int right = -1;
+            for (int i = 0; i < strips; i++)
+            {
+                if (!stripLeansRight[i] && stripX[i] > stripX[left] && (right < 0 || stripX[i] < stripX[right]))
+                {
+                    right = i;
+                }
+            }
+            if (right < 0)
+            {
+                continue;
+            }
+            double offset = (stripX[left] + stripX[right]) / 2 - center;
+            if (Math.abs(offset) < Math.abs(bestOffset))
+            {
+                bestOffset = offset;
+                bestSeparation = stripX[right] - stripX[left];
+            }
+        }
+        if (bestOffset == Double.MAX_VALUE)
+        {
+            target.set(false, 0, 0);
+            return;
+        }
+        double focalPixels = center / Math.tan(Math.toRadians(HORIZONTAL_FOV_DEGREES / 2));
+        target.set(true, Math.toDegrees(Math.atan(bestOffset / focalPixels)), bestSeparation);
+    }
+
+    /**
+     * @return strips in the last frame that passed the size and shape checks
+     */
+    public int getStripCount()
+    {
+        return strips;
+    }
+}
@@ -0,0 +1,50 @@
+package com.team1389.vision;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hands the latest {@link VisionTarget} from the vision thread to the main
+ * loop without locks or allocation. One thread publishes; any thread reads.
+ * A publish never waits. A read that overlaps a publish retries, which costs
+ * at most a few copies of a handful of fields
+ */
+public class TargetSlot
+{
+    // odd while a publish is in progress
+    private final AtomicLong sequence = new AtomicLong();
+    private final VisionTarget latest = new VisionTarget();
+
+    /**
+     * replaces the latest target. Only call from one thread
+     */
+    public void publish(VisionTarget target)
+    {
+        long start = sequence.get();
+        sequence.set(start + 1);
+        VarHandle.storeStoreFence();
+        latest.copyFrom(target);
+        sequence.set(start + 2);
+    }
+
+    /**
+     * copies the latest target into the one given
+     */
+    public void read(VisionTarget into)
+    {
+        while (true)
+        {
+            long before = sequence.get();
+            if ((before & 1) == 0)
+            {
+                into.copyFrom(latest);
+                VarHandle.loadLoadFence();
+                if (sequence.get() == before)
+                {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.team1389.vision;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.opencv.core.Mat;
+
+import com.team1389.commands.Clock;
+
+/**
+ * runs a {@link TargetPipeline} over frames from a {@link FrameSource} on its
+ * own thread, and publishes each result to a {@link TargetSlot} the main loop
+ * reads with {@link #getLatest(VisionTarget)}. The frame buffer and result are
+ * reused for every frame
+ */
+public class TargetTracker
+{
+    private static final long NO_FRAME_WAIT_NANOS = 10_000_000;
+    private static final long STOP_TIMEOUT_MILLIS = 500;
+
+    private final FrameSource source;
+    private final TargetPipeline pipeline;
+    private final Clock clock;
+    private final TargetSlot slot = new TargetSlot();
+
+    // owned by whichever thread processes frames
+    private final Mat frame = new Mat();
+    private final VisionTarget result = new VisionTarget();
+
+    private volatile long frames;
+    private volatile long missedFrames;
+    private volatile boolean running;
+    private Thread thread;
+
+    public TargetTracker(FrameSource source, TargetPipeline pipeline, Clock clock)
+    {
+        this.source = source;
+        this.pipeline = pipeline;
+        this.clock = clock;
+    }
+
+    /**
+     * grabs and processes one frame and publishes the result. Called by the
+     * vision thread, or directly when it isn't running
+     * 
+     * @return false if the source had no frame
+     */
+    public boolean processFrame()
+    {
+        double captured = source.grab(frame, clock);
+        if (Double.isNaN(captured))
+        {
+            missedFrames++;
+            return false;
+        }
+        pipeline.process(frame, result);
+        result.setFrame(frames + 1, captured);
+        slot.publish(result);
+        frames++;
+        return true;
+    }
+
+    /**
+     * copies the most recent result into the one given. Never blocks on the
+     * vision thread
+     */
+    public void getLatest(VisionTarget into)
+    {
+        slot.read(into);
+    }
+
+    /**
+     * starts the vision thread, which processes frames as fast as the source
+     * gives them until {@link #stop()}. Does nothing if it is already running
+     */
+    public void start()
+    {
+        if (thread != null)
+        {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "vision");
+        thread.setDaemon(true);
+        // never compete with the main loop
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+
+    private void run()
+    {
+        while (running)
+        {
+            if (!processFrame())
+            {
+                LockSupport.parkNanos(NO_FRAME_WAIT_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return true if the vision thread has exited
+     */
+    public boolean stop()
+    {
+        running = false;
+        if (thread == null)
+        {
+            return true;
+        }
+        LockSupport.unpark(thread);
+        try
+        {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive())
+        {
+            return false;
+        }
+        thread = null;
+        return true;
+    }
+
+    public Clock getClock()
+    {
+        return clock;
+    }
+
+    /**
+     * @return frames processed
+     */
+    public long getFrames()
+    {
+        return frames;
+    }
+
+    /**
+     * @return times the source had no frame
+     */
+    public long getMissedFrames()
+    {
+        return missedFrames;
+    }
+}
@@ -0,0 +1,79 @@
+package com.team1389.vision;
+
+/**
+ * what the vision pipeline found in one frame. Mutable, so the same instance
+ * can be filled frame after frame without allocating
+ */
+public class VisionTarget
+{
+    private boolean found;
+    private double yawDegrees;
+    private double separationPixels;
+    private long frame;
+    private double captureSeconds;
+
+    void set(boolean found, double yawDegrees, double separationPixels)
+    {
+        this.found = found;
+        this.yawDegrees = yawDegrees;
+        this.separationPixels = separationPixels;
+    }
+
+    void setFrame(long frame, double captureSeconds)
+    {
+        this.frame = frame;
+        this.captureSeconds = captureSeconds;
+    }
+
+    public void copyFrom(VisionTarget other)
+    {
+        found = other.found;
+        yawDegrees = other.yawDegrees;
+        separationPixels = other.separationPixels;
+        frame = other.frame;
+        captureSeconds = other.captureSeconds;
+    }
+
+    /**
+     * @return whether a pair of 2019 target strips was in the frame
+     */
+    public boolean isFound()
+    {
+        return found;
+    }
+
+    /**
+     * @return degrees from the camera's center line to the middle of the
+     *         target, positive to the right
+     */
+    public double getYawDegrees()
+    {
+        return yawDegrees;
+    }
+
+    /**
+     * @return pixels between the centers of the two strips, which grows as
+     *         the target gets closer
+     */
+    public double getSeparationPixels()
+    {
+        return separationPixels;
+    }
+
+    /**
+     * @return frames processed before this one; 0 if no frame has been
+     *         processed yet
+     */
+    public long getFrame()
+    {
+        return frame;
+    }
+
+    /**
+     * @return when the frame was captured, on the tracker's clock
+     */
+    public double getCaptureSeconds()
+    {
+        return captureSeconds;
+    }
+}